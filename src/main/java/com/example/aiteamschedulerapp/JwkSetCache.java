@@ -0,0 +1,187 @@
+package com.example.aiteamschedulerapp;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory copy of the realm's JSON Web Key Set used to verify access tokens.
+ * Keys are fetched eagerly at startup, refreshed in the background and kept on disk for cold starts;
+ * token verification always reads the current copy and never waits on a scheduled refresh.
+ */
+@Component
+public class JwkSetCache implements JWKSource<SecurityContext> {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwkSetCache.class);
+
+    private final AtomicReference<JWKSet> current = new AtomicReference<>(new JWKSet());
+    private final HttpClient httpClient;
+    private final URI jwkSetUri;
+    private final Duration fetchTimeout;
+    private final Path snapshotPath;
+    private final long unknownKeyRefreshIntervalMillis;
+    private final MeterRegistry meterRegistry;
+
+    private volatile long lastFetchedAt;
+    private volatile long lastRefreshAttemptAt;
+    private volatile long startupLatencyMillis = -1;
+
+    public JwkSetCache(
+            @Value("${keycloak.auth-server-url}") String authServerUrl,
+            @Value("${keycloak.realm}") String realm,
+            @Value("${security.jwks.fetch-timeout-ms:3000}") long fetchTimeoutMs,
+            @Value("${security.jwks.snapshot-path:}") String snapshotPath,
+            @Value("${security.jwks.unknown-key-refresh-interval-ms:30000}") long unknownKeyRefreshIntervalMillis,
+            MeterRegistry meterRegistry
+    ) {
+        this.jwkSetUri = URI.create(authServerUrl + "/realms/" + realm + "/protocol/openid-connect/certs");
+        this.fetchTimeout = Duration.ofMillis(fetchTimeoutMs);
+        this.snapshotPath = snapshotPath == null || snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        this.unknownKeyRefreshIntervalMillis = unknownKeyRefreshIntervalMillis;
+        this.meterRegistry = meterRegistry;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(fetchTimeout)
+                .build();
+
+        Gauge.builder("security.jwks.keys", current, ref -> ref.get().getKeys().size())
+                .description("Keys currently available for token verification")
+                .register(meterRegistry);
+        Gauge.builder("security.jwks.age.seconds", this,
+                        cache -> cache.lastFetchedAt == 0 ? -1 : (System.currentTimeMillis() - cache.lastFetchedAt) / 1000.0)
+                .description("Seconds since the key set was last fetched from Keycloak")
+                .register(meterRegistry);
+        TimeGauge.builder("security.jwks.startup.latency", this, TimeUnit.MILLISECONDS,
+                        cache -> cache.startupLatencyMillis)
+                .description("Time from startup until tokens could be verified")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void prefetch() {
+        long start = System.currentTimeMillis();
+
+        if (snapshotPath != null && Files.isReadable(snapshotPath)) {
+            try {
+                current.set(JWKSet.parse(Files.readString(snapshotPath, StandardCharsets.UTF_8)));
+                startupLatencyMillis = System.currentTimeMillis() - start;
+                logger.info("Loaded {} signing keys from snapshot {}", current.get().getKeys().size(), snapshotPath);
+            } catch (IOException | ParseException e) {
+                logger.warn("Ignoring unreadable JWKS snapshot {}: {}", snapshotPath, e.getMessage());
+            }
+        }
+
+        if (refresh() && startupLatencyMillis < 0) {
+            startupLatencyMillis = System.currentTimeMillis() - start;
+        }
+    }
+
+    /**
+     * Re-fetches the key set on a schedule; the previous keys keep serving if Keycloak is slow or down.
+     */
+    @Scheduled(initialDelayString = "${security.jwks.refresh-interval-ms:300000}",
+            fixedDelayString = "${security.jwks.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    boolean refresh() {
+        lastRefreshAttemptAt = System.currentTimeMillis();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            HttpRequest request = HttpRequest.newBuilder(jwkSetUri)
+                    .timeout(fetchTimeout)
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("JWKS endpoint returned status " + response.statusCode());
+            }
+
+            JWKSet fetched = JWKSet.parse(response.body());
+            current.set(fetched);
+            lastFetchedAt = System.currentTimeMillis();
+            writeSnapshot(response.body());
+            logger.debug("Refreshed JWKS, {} keys", fetched.getKeys().size());
+            return true;
+        } catch (IOException | ParseException e) {
+            outcome = "error";
+            logger.warn("JWKS refresh from {} failed, keeping {} cached keys: {}",
+                    jwkSetUri, current.get().getKeys().size(), e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            outcome = "error";
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            sample.stop(Timer.builder("security.jwks.refresh")
+                    .description("JWKS fetch duration")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private void writeSnapshot(String json) {
+        if (snapshotPath == null) {
+            return;
+        }
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = Files.createTempFile(parent, "jwks", ".tmp");
+            Files.writeString(temp, json, StandardCharsets.UTF_8);
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not write JWKS snapshot to {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        List<JWK> keys = jwkSelector.select(current.get());
+        if (!keys.isEmpty()) {
+            return keys;
+        }
+
+        // Unknown kid usually means Keycloak rotated its keys; re-fetch at most once per interval
+        if (System.currentTimeMillis() - lastRefreshAttemptAt >= unknownKeyRefreshIntervalMillis) {
+            synchronized (this) {
+                if (System.currentTimeMillis() - lastRefreshAttemptAt >= unknownKeyRefreshIntervalMillis) {
+                    refresh();
+                }
+            }
+            return jwkSelector.select(current.get());
+        }
+        return keys;
+    }
+}
@@ -1,5 +1,12 @@
 package com.example.aiteamschedulerapp;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.web.filter.OncePerRequestFilter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -11,6 +18,12 @@ import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -18,8 +31,18 @@ import java.util.stream.Collectors;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtDecoder jwtDecoder;
 
-    public JwtAuthenticationFilter(JwtDecoder jwtDecoder) {
+    // Verified tokens keyed by a SHA-256 digest of the raw token, each entry expiring at the token's exp claim
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtAuthenticationFilter(JwtDecoder jwtDecoder, MeterRegistry meterRegistry, long maxCachedTokens,
+                                   Duration maxTokenLifetime) {
         this.jwtDecoder = jwtDecoder;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxCachedTokens)
+                .expireAfter(new ExpireAtTokenExpiry(maxTokenLifetime))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.validation");
     }
 
     @Override
@@ -31,33 +54,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             try {
                 String token = authHeader.substring(7);
-                Jwt jwt = jwtDecoder.decode(token);
-
-                // Extract user identifier (email or preferred_username) to use as principal
-                String userIdentifier;
-                if (jwt.hasClaim("email")) {
-                    userIdentifier = jwt.getClaimAsString("email");
-                } else if (jwt.hasClaim("preferred_username")) {
-                    userIdentifier = jwt.getClaimAsString("preferred_username");
-                } else {
-                    userIdentifier = jwt.getSubject();
-                }
+                String key = digest(token);
 
-                // Extract roles from realm_access.roles
-                List<String> roles = Collections.emptyList();
-                if (jwt.hasClaim("realm_access")) {
-                    @SuppressWarnings("unchecked")
-                    List<String> realmRoles = ((List<String>) ((java.util.Map<String, Object>) jwt.getClaim("realm_access")).get("roles"));
-                    roles = realmRoles;
+                // Only successfully verified tokens are cached, so a miss always goes through the decoder
+                VerifiedToken verified = verifiedTokens.getIfPresent(key);
+                if (verified == null) {
+                    verified = verify(token);
+                    verifiedTokens.put(key, verified);
                 }
 
                 // Create authentication token with roles and user identifier as principal name
                 JwtAuthenticationToken authentication = new JwtAuthenticationToken(
-                        jwt,
-                        roles.stream()
-                                .map(role -> new org.springframework.security.core.authority.SimpleGrantedAuthority("ROLE_" + role))
-                                .collect(Collectors.toList()),
-                        userIdentifier  // Use the extracted identifier as principal name
+                        verified.jwt(),
+                        verified.authorities(),
+                        verified.principalName()  // Use the extracted identifier as principal name
                 );
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -70,4 +80,75 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private VerifiedToken verify(String token) {
+        Jwt jwt = jwtDecoder.decode(token);
+
+        // Extract user identifier (email or preferred_username) to use as principal
+        String userIdentifier;
+        if (jwt.hasClaim("email")) {
+            userIdentifier = jwt.getClaimAsString("email");
+        } else if (jwt.hasClaim("preferred_username")) {
+            userIdentifier = jwt.getClaimAsString("preferred_username");
+        } else {
+            userIdentifier = jwt.getSubject();
+        }
+
+        // Extract roles from realm_access.roles
+        List<String> roles = Collections.emptyList();
+        if (jwt.hasClaim("realm_access")) {
+            @SuppressWarnings("unchecked")
+            List<String> realmRoles = ((List<String>) ((java.util.Map<String, Object>) jwt.getClaim("realm_access")).get("roles"));
+            roles = realmRoles;
+        }
+
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + role))
+                .collect(Collectors.toUnmodifiableList());
+
+        return new VerifiedToken(jwt, authorities, userIdentifier);
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record VerifiedToken(Jwt jwt, List<GrantedAuthority> authorities, String principalName) {
+    }
+
+    private static final class ExpireAtTokenExpiry implements Expiry<String, VerifiedToken> {
+        private final Duration maxTokenLifetime;
+
+        private ExpireAtTokenExpiry(Duration maxTokenLifetime) {
+            this.maxTokenLifetime = maxTokenLifetime;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            Instant expiresAt = value.jwt().getExpiresAt();
+            if (expiresAt == null) {
+                return maxTokenLifetime.toNanos();
+            }
+            Duration remaining = Duration.between(Instant.now(), expiresAt);
+            if (remaining.isNegative()) {
+                return 0L;
+            }
+            return Math.min(remaining.toNanos(), maxTokenLifetime.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
 }
@@ -0,0 +1,45 @@
+package com.example.aiteamschedulerapp;
+
+import com.example.aiteamschedulerapp.services.JdbcDirectorySource;
+import com.example.aiteamschedulerapp.services.MappedCsvDirectorySource;
+import com.example.aiteamschedulerapp.services.StreamingCsvDirectorySource;
+import com.example.aiteamschedulerapp.services.UserDirectorySource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+
+@Configuration
+public class UserDirectoryConfig {
+
+    /**
+     * Picks the directory source. With source=auto the location decides: classpath: resources are
+     * streamed, *.gz files are decompressed on the fly and any other file is memory mapped.
+     */
+    @Bean
+    public UserDirectorySource userDirectorySource(
+            DataSource dataSource,
+            @Value("${app.user-directory.source:auto}") String source,
+            @Value("${app.user-list-path:classpath:user-list.txt}") String location,
+            @Value("${app.user-directory.csv.name-columns:0}") int[] nameColumns,
+            @Value("${app.user-directory.csv.email-column:1}") int emailColumn,
+            @Value("${app.user-directory.jdbc.query:SELECT name, email FROM user_directory}") String query,
+            @Value("${app.user-directory.jdbc.fetch-size:5000}") int fetchSize
+    ) {
+        if ("auto".equals(source)) {
+            source = location.startsWith("classpath:") ? "classpath"
+                    : location.endsWith(".gz") ? "gzip"
+                    : "mapped";
+        }
+        return switch (source) {
+            case "classpath" -> StreamingCsvDirectorySource.classpath(
+                    location.substring(location.indexOf(':') + 1), nameColumns, emailColumn);
+            case "gzip" -> StreamingCsvDirectorySource.gzip(Path.of(location), nameColumns, emailColumn);
+            case "mapped" -> new MappedCsvDirectorySource(Path.of(location), nameColumns, emailColumn);
+            case "jdbc" -> new JdbcDirectorySource(dataSource, query, fetchSize);
+            default -> throw new IllegalStateException("Unknown app.user-directory.source: " + source);
+        };
+    }
+}
@@ -3,6 +3,7 @@ package com.example.aiteamschedulerapp.controllers;
 import com.example.aiteamschedulerapp.entities.*;
 import com.example.aiteamschedulerapp.repositories.TeamInvitationRepository;
 import com.example.aiteamschedulerapp.services.AuthService;
+import com.example.aiteamschedulerapp.services.InvitationDetailsService;
 import com.example.aiteamschedulerapp.services.KeycloakService;
 
 
@@ -20,11 +21,16 @@ public class AuthController {
     private final KeycloakService keycloakService;
     private final TeamInvitationRepository invitationRepository;
     private final TeamService teamService;
+    private final AuthService authService;
+    private final InvitationDetailsService invitationDetailsService;
 
-    public AuthController(KeycloakService keycloakService , TeamInvitationRepository invitationRepository, TeamService teamService) {
+    public AuthController(KeycloakService keycloakService , TeamInvitationRepository invitationRepository, TeamService teamService,
+                          AuthService authService, InvitationDetailsService invitationDetailsService) {
         this.keycloakService = keycloakService;
         this.invitationRepository = invitationRepository;
         this.teamService = teamService;
+        this.authService = authService;
+        this.invitationDetailsService = invitationDetailsService;
 
     }
     @PostMapping("/register")
@@ -47,10 +53,12 @@ public class AuthController {
         }
 
         AuthResponse response = keycloakService.registerUser(request);
+        authService.evictUser(request.getEmail());
 
         if (invitation != null) {
             invitation.setAccepted(true);
             invitationRepository.save(invitation);
+            invitationDetailsService.evict(invitation.getInvitationToken());
         }
 
         return ResponseEntity.ok(response);
@@ -0,0 +1,37 @@
+package com.example.aiteamschedulerapp.controllers;
+
+import com.example.aiteamschedulerapp.services.BulkProvisioningService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/admin/users")
+public class BulkProvisioningController {
+    private static final Logger logger = LoggerFactory.getLogger(BulkProvisioningController.class);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final BulkProvisioningService bulkProvisioningService;
+
+    public BulkProvisioningController(BulkProvisioningService bulkProvisioningService) {
+        this.bulkProvisioningService = bulkProvisioningService;
+    }
+
+    /**
+     * Accepts one RegisterRequest JSON object per line and streams back one result per line.
+     */
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson")
+    @PreAuthorize("hasRole('Admin')")
+    public ResponseEntity<StreamingResponseBody> provisionUsers(HttpServletRequest request) {
+        logger.info("Starting bulk user provisioning");
+        StreamingResponseBody body = out -> bulkProvisioningService.provision(request.getInputStream(), out);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
+    }
+}
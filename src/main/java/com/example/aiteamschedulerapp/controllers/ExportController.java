@@ -0,0 +1,61 @@
+package com.example.aiteamschedulerapp.controllers;
+
+import com.example.aiteamschedulerapp.services.ExportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.util.function.BiConsumer;
+
+@RestController
+@RequestMapping("/api/admin/export")
+public class ExportController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/users")
+    @PreAuthorize("hasRole('Admin')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "ndjson") String format) {
+        return stream("users", format, exportService::exportUsers);
+    }
+
+    @GetMapping("/teams")
+    @PreAuthorize("hasRole('Admin')")
+    public ResponseEntity<StreamingResponseBody> exportTeams(@RequestParam(defaultValue = "ndjson") String format) {
+        return stream("teams", format, exportService::exportTeams);
+    }
+
+    @GetMapping("/team-members")
+    @PreAuthorize("hasRole('Admin')")
+    public ResponseEntity<StreamingResponseBody> exportTeamMembers(@RequestParam(defaultValue = "ndjson") String format) {
+        return stream("team-members", format, exportService::exportTeamMembers);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, String format,
+                                                         BiConsumer<ExportService.Format, OutputStream> exporter) {
+        ExportService.Format exportFormat = switch (format.toLowerCase()) {
+            case "ndjson" -> ExportService.Format.NDJSON;
+            case "csv" -> ExportService.Format.CSV;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported format: " + format);
+        };
+        String extension = exportFormat == ExportService.Format.CSV ? "csv" : "ndjson";
+
+        StreamingResponseBody body = out -> exporter.accept(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat == ExportService.Format.CSV ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + extension + "\"")
+                .body(body);
+    }
+}
@@ -1,29 +1,46 @@
 package com.example.aiteamschedulerapp.controllers;
 
-import com.example.aiteamschedulerapp.entities.TeamInvitation;
-import com.example.aiteamschedulerapp.services.TeamService;
+import com.example.aiteamschedulerapp.entities.InvitationDetails;
+import com.example.aiteamschedulerapp.services.InvitationDetailsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
 
 @RestController
 @RequestMapping("/api/invitations")
 @CrossOrigin(origins = "*")
 public class InvitationController {
-    private final TeamService teamService;
+    private final InvitationDetailsService invitationDetailsService;
+
+    @Value("${app.invitations.details-cache.max-age-seconds:30}")
+    private long maxAgeSeconds;
 
-    public InvitationController(TeamService teamService) {
-        this.teamService = teamService;
+    public InvitationController(InvitationDetailsService invitationDetailsService) {
+        this.invitationDetailsService = invitationDetailsService;
     }
 
     @GetMapping("/validate")
-    public ResponseEntity<TeamInvitation> validateInvitation(@RequestParam String token) {
-        TeamInvitation invitation = teamService.validateInvitationToken(token);
-        return ResponseEntity.ok(invitation);
+    public ResponseEntity<InvitationDetails> validateInvitation(@RequestParam String token, WebRequest request) {
+        return cacheable(invitationDetailsService.validate(token), request);
     }
 
     @GetMapping("/details")
-    public ResponseEntity<TeamInvitation> getInvitationDetails(@RequestParam String token) {
-        TeamInvitation invitation = teamService.getInvitationByToken(token);
-        return ResponseEntity.ok(invitation);
+    public ResponseEntity<InvitationDetails> getInvitationDetails(@RequestParam String token, WebRequest request) {
+        return cacheable(invitationDetailsService.getDetails(token), request);
+    }
+
+    private ResponseEntity<InvitationDetails> cacheable(InvitationDetails details, WebRequest request) {
+        // Invite pages are personal, so only the browser may cache them
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePrivate();
+        String etag = details.etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(details);
     }
 }
@@ -0,0 +1,233 @@
+package com.example.aiteamschedulerapp.controllers;
+
+import com.example.aiteamschedulerapp.entities.ScheduleSolution;
+import com.example.aiteamschedulerapp.entities.Shift;
+import com.example.aiteamschedulerapp.entities.ShiftDTO;
+import com.example.aiteamschedulerapp.entities.SolverJobDTO;
+import com.example.aiteamschedulerapp.entities.TeamAvailability;
+import com.example.aiteamschedulerapp.entities.TimeWindow;
+import com.example.aiteamschedulerapp.entities.User;
+import com.example.aiteamschedulerapp.entities.UserRole;
+import com.example.aiteamschedulerapp.services.AuthService;
+import com.example.aiteamschedulerapp.services.AvailabilityService;
+import com.example.aiteamschedulerapp.services.SchedulingService;
+import com.example.aiteamschedulerapp.services.SolverJobService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/teams/{teamId}/schedule")
+public class ScheduleController {
+    private static final Duration DEFAULT_WINDOW = Duration.ofDays(7);
+
+    private final SchedulingService schedulingService;
+    private final SolverJobService solverJobService;
+    private final AvailabilityService availabilityService;
+    private final AuthService authService;
+
+    public ScheduleController(SchedulingService schedulingService, SolverJobService solverJobService,
+                              AvailabilityService availabilityService, AuthService authService) {
+        this.schedulingService = schedulingService;
+        this.solverJobService = solverJobService;
+        this.availabilityService = availabilityService;
+        this.authService = authService;
+    }
+
+    @PostMapping("/shifts")
+    @PreAuthorize("hasRole('Manager')")
+    public ResponseEntity<List<ShiftDTO>> createShifts(
+            @PathVariable Long teamId,
+            @RequestBody List<ShiftRequest> requests
+    ) {
+        List<Shift> shifts = requests.stream().map(ShiftRequest::toShift).collect(Collectors.toList());
+        return ResponseEntity.ok(schedulingService.createShifts(teamId, shifts));
+    }
+
+    @GetMapping("/shifts")
+    @PreAuthorize("hasAnyRole('Manager', 'User')")
+    public ResponseEntity<List<ShiftDTO>> getShifts(
+            @PathVariable Long teamId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        LocalDateTime start = from != null ? from : LocalDateTime.now();
+        LocalDateTime end = to != null ? to : start.plus(DEFAULT_WINDOW);
+        return ResponseEntity.ok(schedulingService.getShifts(teamId, start, end));
+    }
+
+    @PutMapping("/members/{userId}/skills")
+    @PreAuthorize("hasRole('Manager')")
+    public ResponseEntity<Void> replaceMemberSkills(
+            @PathVariable Long teamId,
+            @PathVariable Long userId,
+            @RequestBody List<String> skills
+    ) {
+        schedulingService.replaceMemberSkills(teamId, userId, skills);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/members/{userId}/availability")
+    @PreAuthorize("hasAnyRole('Manager', 'User')")
+    public ResponseEntity<Void> addAvailability(
+            @PathVariable Long teamId,
+            @PathVariable Long userId,
+            @RequestBody List<AvailabilityRequest> requests
+    ) {
+        checkCanEditAvailability(userId);
+        List<TimeWindow> windows = requests.stream().map(AvailabilityRequest::toWindow).collect(Collectors.toList());
+        availabilityService.addAvailability(teamId, userId, windows);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Marks the windows as busy again.
+     */
+    @DeleteMapping("/members/{userId}/availability")
+    @PreAuthorize("hasAnyRole('Manager', 'User')")
+    public ResponseEntity<Void> removeAvailability(
+            @PathVariable Long teamId,
+            @PathVariable Long userId,
+            @RequestBody List<AvailabilityRequest> requests
+    ) {
+        checkCanEditAvailability(userId);
+        List<TimeWindow> windows = requests.stream().map(AvailabilityRequest::toWindow).collect(Collectors.toList());
+        availabilityService.removeAvailability(teamId, userId, windows);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Which members are free for all of [from, to), and when within it the whole team is free.
+     */
+    @GetMapping("/availability")
+    @PreAuthorize("hasAnyRole('Manager', 'User')")
+    public ResponseEntity<TeamAvailability> getTeamAvailability(
+            @PathVariable Long teamId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        return ResponseEntity.ok(availabilityService.getTeamAvailability(teamId, from, to));
+    }
+
+    /**
+     * Computes assignments for the team's shifts in [from, to) and, unless apply=false, stores them.
+     * With warmStart=true the search starts from the stored assignments.
+     */
+    @PostMapping("/solve")
+    @PreAuthorize("hasRole('Manager')")
+    public ResponseEntity<ScheduleSolution> solve(
+            @PathVariable Long teamId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long timeBudgetMs,
+            @RequestParam(defaultValue = "false") boolean warmStart,
+            @RequestParam(defaultValue = "true") boolean apply
+    ) {
+        LocalDateTime start = from != null ? from : LocalDateTime.now();
+        LocalDateTime end = to != null ? to : start.plus(DEFAULT_WINDOW);
+        Duration budget = timeBudgetMs != null ? Duration.ofMillis(timeBudgetMs) : null;
+        return ResponseEntity.ok(schedulingService.solve(teamId, start, end, budget, warmStart, apply));
+    }
+
+    /**
+     * Queues a background solve; follow it on /jobs/{jobId}/events.
+     */
+    @PostMapping("/jobs")
+    @PreAuthorize("hasRole('Manager')")
+    public ResponseEntity<SolverJobDTO> submitJob(
+            @PathVariable Long teamId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long timeBudgetMs,
+            @RequestParam(defaultValue = "false") boolean warmStart,
+            @RequestParam(defaultValue = "true") boolean apply
+    ) {
+        LocalDateTime start = from != null ? from : LocalDateTime.now();
+        LocalDateTime end = to != null ? to : start.plus(DEFAULT_WINDOW);
+        Duration budget = timeBudgetMs != null ? Duration.ofMillis(timeBudgetMs) : null;
+        SolverJobDTO job = solverJobService.submit(teamId, authService.getCurrentUser(), start, end, budget,
+                warmStart, apply);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasRole('Manager')")
+    public ResponseEntity<SolverJobDTO> getJob(@PathVariable Long teamId, @PathVariable Long jobId) {
+        return ResponseEntity.ok(solverJobService.getJob(teamId, jobId));
+    }
+
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('Manager')")
+    public SseEmitter streamJob(@PathVariable Long teamId, @PathVariable Long jobId) {
+        return solverJobService.subscribe(teamId, jobId);
+    }
+
+    @DeleteMapping("/jobs/{jobId}")
+    @PreAuthorize("hasRole('Manager')")
+    public ResponseEntity<SolverJobDTO> cancelJob(@PathVariable Long teamId, @PathVariable Long jobId) {
+        return ResponseEntity.ok(solverJobService.cancel(teamId, jobId));
+    }
+
+    // Managers may edit anyone's availability, members only their own
+    private void checkCanEditAvailability(Long userId) {
+        User current = authService.getCurrentUser();
+        if (current.getRole() != UserRole.Manager && !current.getId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You can only change your own availability");
+        }
+    }
+
+    public static class ShiftRequest {
+        private String name;
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+        private String requiredSkill;
+        private Integer headcount;
+
+        Shift toShift() {
+            Shift shift = new Shift();
+            shift.setName(name);
+            shift.setStartTime(startTime);
+            shift.setEndTime(endTime);
+            shift.setRequiredSkill(requiredSkill);
+            shift.setHeadcount(headcount != null ? headcount : 1);
+            return shift;
+        }
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public LocalDateTime getStartTime() { return startTime; }
+        public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+        public LocalDateTime getEndTime() { return endTime; }
+        public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+        public String getRequiredSkill() { return requiredSkill; }
+        public void setRequiredSkill(String requiredSkill) { this.requiredSkill = requiredSkill; }
+        public Integer getHeadcount() { return headcount; }
+        public void setHeadcount(Integer headcount) { this.headcount = headcount; }
+    }
+
+    public static class AvailabilityRequest {
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+
+        TimeWindow toWindow() {
+            return new TimeWindow(startTime, endTime);
+        }
+
+        // Getters and setters
+        public LocalDateTime getStartTime() { return startTime; }
+        public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+        public LocalDateTime getEndTime() { return endTime; }
+        public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+    }
+}
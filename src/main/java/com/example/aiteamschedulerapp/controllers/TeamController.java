@@ -1,15 +1,20 @@
 package com.example.aiteamschedulerapp.controllers;
 
 
+import com.example.aiteamschedulerapp.entities.FreeSlot;
 import com.example.aiteamschedulerapp.entities.Team;
+import com.example.aiteamschedulerapp.entities.TeamCreationResult;
 import com.example.aiteamschedulerapp.entities.TeamDTO;
 import com.example.aiteamschedulerapp.entities.User;
+import com.example.aiteamschedulerapp.services.AcceptedInvitationProcessor;
 import com.example.aiteamschedulerapp.services.AuthService;
+import com.example.aiteamschedulerapp.services.FreeSlotService;
 import com.example.aiteamschedulerapp.services.TeamService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -18,20 +23,25 @@ import java.util.stream.Collectors;
 public class TeamController {
     private final TeamService teamService;
     private final AuthService authService;
+    private final AcceptedInvitationProcessor acceptedInvitationProcessor;
+    private final FreeSlotService freeSlotService;
 
-    public TeamController(TeamService teamService, AuthService authService) {
+    public TeamController(TeamService teamService, AuthService authService,
+                          AcceptedInvitationProcessor acceptedInvitationProcessor, FreeSlotService freeSlotService) {
         this.teamService = teamService;
         this.authService = authService;
+        this.acceptedInvitationProcessor = acceptedInvitationProcessor;
+        this.freeSlotService = freeSlotService;
     }
 
     @PostMapping
     @PreAuthorize("hasRole('Manager')")
-    public ResponseEntity<Team> createTeam(
+    public ResponseEntity<TeamCreationResult> createTeam(
             @RequestBody TeamCreationRequest request
     ) {
         User currentUser = authService.getCurrentUser();
-        Team team = teamService.createTeam(currentUser, request.getTeamName(), request.getInvitedEmails());
-        return ResponseEntity.ok(team);
+        TeamCreationResult result = teamService.createTeam(currentUser, request.getTeamName(), request.getInvitedEmails());
+        return ResponseEntity.ok(result);
     }
 
     @GetMapping
@@ -45,6 +55,22 @@ public class TeamController {
         return ResponseEntity.ok(teamDTOs);
     }
 
+    /**
+     * Meeting slots of the given length in the next horizonDays, ranked by how many members of the teams can attend.
+     */
+    @GetMapping("/free-slots")
+    @PreAuthorize("hasRole('Manager')")
+    public ResponseEntity<List<FreeSlot>> findFreeSlots(
+            @RequestParam List<Long> teamIds,
+            @RequestParam int durationMinutes,
+            @RequestParam(defaultValue = "7") int horizonDays,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        User currentUser = authService.getCurrentUser();
+        return ResponseEntity.ok(freeSlotService.findFreeSlots(currentUser, teamIds,
+                Duration.ofMinutes(durationMinutes), horizonDays, limit));
+    }
+
     @PostMapping("/{teamId}/members")
     @PreAuthorize("hasRole('Manager')")
     public ResponseEntity<Team> addMembersToTeam(
@@ -75,7 +101,7 @@ public class TeamController {
     @GetMapping("/invitations/process-accepted")
     @PreAuthorize("hasRole('Manager')")
     public ResponseEntity<Void> processAcceptedInvitations() {
-        teamService.processAcceptedInvitations();
+        acceptedInvitationProcessor.processAll();
         return ResponseEntity.ok().build();
     }
 
@@ -1,8 +1,14 @@
 package com.example.aiteamschedulerapp.controllers;
 
 import com.example.aiteamschedulerapp.entities.User;
+import com.example.aiteamschedulerapp.entities.UserDto;
+import com.example.aiteamschedulerapp.entities.UserPage;
+import com.example.aiteamschedulerapp.entities.UserRole;
+import com.example.aiteamschedulerapp.repositories.InvalidPageRequestException;
 import com.example.aiteamschedulerapp.repositories.UserRepository;
+import com.example.aiteamschedulerapp.services.AuthService;
 import com.example.aiteamschedulerapp.services.KeycloakService;
+import com.example.aiteamschedulerapp.services.UserSearchIndex;
 import com.example.aiteamschedulerapp.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -22,24 +28,54 @@ import org.springframework.web.server.ResponseStatusException;
 @RequestMapping("/api/users")
 public class UserController {
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SEARCH_RESULTS = 50;
 
     private final UserRepository userRepository;
     private final KeycloakService keycloakService;
     private final UserService userService;
+    private final AuthService authService;
+    private final UserSearchIndex userSearchIndex;
 
-    public UserController(UserRepository userRepository, KeycloakService keycloakService , UserService userService) {
+    public UserController(UserRepository userRepository, KeycloakService keycloakService , UserService userService,
+                          AuthService authService, UserSearchIndex userSearchIndex) {
         this.userRepository = userRepository;
         this.keycloakService = keycloakService;
         this.userService = userService;
+        this.authService = authService;
+        this.userSearchIndex = userSearchIndex;
 
     }
 
     @GetMapping
     @PreAuthorize("hasRole('Admin')")
-    public ResponseEntity<List<User>> getAllUsers() {
-        logger.info("Retrieving all users");
-        List<User> users = userRepository.findAll();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<UserPage> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(required = false) String namePrefix
+    ) {
+        logger.info("Retrieving users page (sort: {} {}, role: {}, prefix: {})", sort, direction, role, namePrefix);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        try {
+            UserPage page = userRepository.findPage(role, namePrefix, sort, "desc".equalsIgnoreCase(direction),
+                    cursor, pageSize);
+            return ResponseEntity.ok(page);
+        } catch (InvalidPageRequestException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('Manager', 'Admin')")
+    public ResponseEntity<List<UserDto>> searchUsers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        int resultSize = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        return ResponseEntity.ok(userSearchIndex.search(q, resultSize));
     }
 
     @GetMapping("/{id}")
@@ -66,6 +102,8 @@ public class UserController {
         }
 
         User user = optionalUser.get();
+        String previousEmail = user.getEmail();
+        UserRole previousRole = user.getRole();
 
         // Check if email is already in use by another user
         if (!user.getEmail().equals(userDetails.getEmail()) &&
@@ -82,10 +120,15 @@ public class UserController {
             user.setRole(userDetails.getRole());
 
             // Update user in Keycloak
-            keycloakService.updateUserDetails(user);
+            keycloakService.updateUserDetails(user, previousRole);
 
             // Save to database
             User updatedUser = userRepository.save(user);
+
+            // Drop cached principal resolutions for both the old and the new email
+            authService.evictUser(previousEmail);
+            authService.evictUser(updatedUser);
+            userSearchIndex.put(updatedUser);
             logger.info("User with ID: {} updated successfully", id);
             return ResponseEntity.ok(updatedUser);
         } catch (Exception e) {
@@ -114,6 +157,8 @@ public class UserController {
 
             // Delete from database
             userRepository.deleteById(id);
+            authService.evictUser(user);
+            userSearchIndex.remove(id);
             logger.info("User with ID: {} deleted successfully", id);
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
@@ -124,9 +169,18 @@ public class UserController {
 
     @GetMapping("/available-emails")
     @PreAuthorize("hasRole('Manager')")
-    public ResponseEntity<List<Map<String, String>>> getAvailableUsers() {
+    public ResponseEntity<List<Map<String, String>>> getAvailableUsers(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
         logger.info("Retrieving available users from user list");
-        List<Map<String, String>> availableUsers = userService.getAvailableUsers();
-        return ResponseEntity.ok(availableUsers);
+        UserService.DirectoryPage availableUsers = userService.getAvailableUsers(q, page, size);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(availableUsers.total()))
+                .body(availableUsers.users());
     }
 }
@@ -0,0 +1,93 @@
+package com.example.aiteamschedulerapp.entities;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A member's availability over a rolling horizon, one bit per 15-minute slot, in a single row.
+ * Members without a calendar are treated as always available.
+ */
+@Entity
+@Table(name = "availability_calendars")
+@Data
+@NoArgsConstructor
+public class AvailabilityCalendar {
+    @Id
+    private Long userId;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @MapsId
+    @JoinColumn(name = "user_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private User user;
+
+    // Day whose midnight is slot 0
+    @Column(nullable = false)
+    private LocalDate origin;
+
+    // Set bits are free slots; the bitset's longs, big-endian
+    @Column(columnDefinition = "bytea", nullable = false)
+    @ToString.Exclude
+    private byte[] slots;
+
+    @Version
+    private long version;
+
+    private LocalDateTime updatedAt;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public LocalDate getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(LocalDate origin) {
+        this.origin = origin;
+    }
+
+    public byte[] getSlots() {
+        return slots;
+    }
+
+    public void setSlots(byte[] slots) {
+        this.slots = slots;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
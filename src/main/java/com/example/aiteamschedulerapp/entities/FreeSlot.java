@@ -0,0 +1,29 @@
+package com.example.aiteamschedulerapp.entities;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class FreeSlot {
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final int attendeeCount;
+    private final int memberCount;
+    // Members of the searched teams who are busy during the slot
+    private final List<Long> absentMemberIds;
+
+    public FreeSlot(LocalDateTime startTime, LocalDateTime endTime, int attendeeCount, int memberCount,
+                    List<Long> absentMemberIds) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.attendeeCount = attendeeCount;
+        this.memberCount = memberCount;
+        this.absentMemberIds = absentMemberIds;
+    }
+
+    // Getters
+    public LocalDateTime getStartTime() { return startTime; }
+    public LocalDateTime getEndTime() { return endTime; }
+    public int getAttendeeCount() { return attendeeCount; }
+    public int getMemberCount() { return memberCount; }
+    public List<Long> getAbsentMemberIds() { return absentMemberIds; }
+}
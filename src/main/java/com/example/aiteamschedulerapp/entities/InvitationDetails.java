@@ -0,0 +1,38 @@
+package com.example.aiteamschedulerapp.entities;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Read model for the public invitation endpoints: only what the invite page shows.
+ */
+public class InvitationDetails {
+    private final String teamName;
+    private final String inviterName;
+    private final String email;
+    private final LocalDateTime expiresAt;
+    private final boolean accepted;
+
+    public InvitationDetails(String teamName, String inviterFirstName, String inviterLastName,
+                             String email, LocalDateTime expiresAt, boolean accepted) {
+        this.teamName = teamName;
+        this.inviterName = inviterFirstName == null && inviterLastName == null ? null :
+                ((inviterFirstName != null ? inviterFirstName : "") + " " +
+                        (inviterLastName != null ? inviterLastName : "")).trim();
+        this.email = email;
+        this.expiresAt = expiresAt;
+        this.accepted = accepted;
+    }
+
+    // Strong validator for HTTP caching, derived from everything that is serialized
+    public String etag() {
+        return "\"" + Integer.toHexString(Objects.hash(teamName, inviterName, email, expiresAt, accepted)) + "\"";
+    }
+
+    // Getters
+    public String getTeamName() { return teamName; }
+    public String getInviterName() { return inviterName; }
+    public String getEmail() { return email; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public boolean isAccepted() { return accepted; }
+}
@@ -0,0 +1,7 @@
+package com.example.aiteamschedulerapp.entities;
+
+public enum InvitationMailStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
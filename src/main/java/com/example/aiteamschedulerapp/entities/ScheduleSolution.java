@@ -0,0 +1,41 @@
+package com.example.aiteamschedulerapp.entities;
+
+import java.util.List;
+
+public class ScheduleSolution {
+    private final List<ShiftDTO> shifts;
+    // Unfilled slots plus double bookings (weighted 2); 0 means every shift is fully and validly staffed
+    private final long hardScore;
+    // Squared deviation of member workloads from the average, in minutes²; lower is more even
+    private final long softScore;
+    private final int unfilledSlots;
+    private final long iterations;
+    private final long iterationsPerSecond;
+    private final long elapsedMillis;
+    private final int workers;
+    private final boolean applied;
+
+    public ScheduleSolution(List<ShiftDTO> shifts, long hardScore, long softScore, int unfilledSlots, long iterations,
+                            long iterationsPerSecond, long elapsedMillis, int workers, boolean applied) {
+        this.shifts = shifts;
+        this.hardScore = hardScore;
+        this.softScore = softScore;
+        this.unfilledSlots = unfilledSlots;
+        this.iterations = iterations;
+        this.iterationsPerSecond = iterationsPerSecond;
+        this.elapsedMillis = elapsedMillis;
+        this.workers = workers;
+        this.applied = applied;
+    }
+
+    // Getters
+    public List<ShiftDTO> getShifts() { return shifts; }
+    public long getHardScore() { return hardScore; }
+    public long getSoftScore() { return softScore; }
+    public int getUnfilledSlots() { return unfilledSlots; }
+    public long getIterations() { return iterations; }
+    public long getIterationsPerSecond() { return iterationsPerSecond; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public int getWorkers() { return workers; }
+    public boolean isApplied() { return applied; }
+}
@@ -0,0 +1,32 @@
+package com.example.aiteamschedulerapp.entities;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ShiftDTO {
+    private Long id;
+    private String name;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private String requiredSkill;
+    private int headcount;
+    private List<Long> assignedUserIds;
+
+    public ShiftDTO(Shift shift, List<Long> assignedUserIds) {
+        this.id = shift.getId();
+        this.name = shift.getName();
+        this.startTime = shift.getStartTime();
+        this.endTime = shift.getEndTime();
+        this.requiredSkill = shift.getRequiredSkill();
+        this.headcount = shift.getHeadcount();
+        this.assignedUserIds = assignedUserIds;
+    }
+
+    public Long getId() { return id; }
+    public String getName() { return name; }
+    public LocalDateTime getStartTime() { return startTime; }
+    public LocalDateTime getEndTime() { return endTime; }
+    public String getRequiredSkill() { return requiredSkill; }
+    public int getHeadcount() { return headcount; }
+    public List<Long> getAssignedUserIds() { return assignedUserIds; }
+}
@@ -0,0 +1,228 @@
+package com.example.aiteamschedulerapp.entities;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * A schedule solve submitted to run in the background, and its outcome once finished.
+ */
+@Entity
+@Table(name = "solver_jobs", indexes = {
+        @Index(name = "idx_solver_jobs_team_submitted", columnList = "team_id, submitted_at"),
+        @Index(name = "idx_solver_jobs_status", columnList = "status")
+})
+@Data
+@NoArgsConstructor
+public class SolverJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "team_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Team team;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "submitted_by_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private User submittedBy;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SolverJobStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime windowStart;
+
+    @Column(nullable = false)
+    private LocalDateTime windowEnd;
+
+    private long timeBudgetMs;
+
+    private boolean warmStart;
+
+    // Whether the result replaces the stored assignments
+    private boolean apply;
+
+    // Instance whose in-memory queue holds the job; only that instance fails it after a restart
+    @Column(length = 100)
+    private String owner;
+
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    private Long hardScore;
+    private Long softScore;
+    private Integer unfilledSlots;
+    private Long iterations;
+
+    // The finished ScheduleSolution as JSON
+    @Column(columnDefinition = "text")
+    @ToString.Exclude
+    private String result;
+
+    @Column(length = 500)
+    private String error;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Team getTeam() {
+        return team;
+    }
+
+    public void setTeam(Team team) {
+        this.team = team;
+    }
+
+    public User getSubmittedBy() {
+        return submittedBy;
+    }
+
+    public void setSubmittedBy(User submittedBy) {
+        this.submittedBy = submittedBy;
+    }
+
+    public SolverJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(SolverJobStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(LocalDateTime windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public LocalDateTime getWindowEnd() {
+        return windowEnd;
+    }
+
+    public void setWindowEnd(LocalDateTime windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+
+    public long getTimeBudgetMs() {
+        return timeBudgetMs;
+    }
+
+    public void setTimeBudgetMs(long timeBudgetMs) {
+        this.timeBudgetMs = timeBudgetMs;
+    }
+
+    public boolean isWarmStart() {
+        return warmStart;
+    }
+
+    public void setWarmStart(boolean warmStart) {
+        this.warmStart = warmStart;
+    }
+
+    public boolean isApply() {
+        return apply;
+    }
+
+    public void setApply(boolean apply) {
+        this.apply = apply;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Long getHardScore() {
+        return hardScore;
+    }
+
+    public void setHardScore(Long hardScore) {
+        this.hardScore = hardScore;
+    }
+
+    public Long getSoftScore() {
+        return softScore;
+    }
+
+    public void setSoftScore(Long softScore) {
+        this.softScore = softScore;
+    }
+
+    public Integer getUnfilledSlots() {
+        return unfilledSlots;
+    }
+
+    public void setUnfilledSlots(Integer unfilledSlots) {
+        this.unfilledSlots = unfilledSlots;
+    }
+
+    public Long getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(Long iterations) {
+        this.iterations = iterations;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.aiteamschedulerapp.entities;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+public class SolverJobDTO {
+    private final Long id;
+    private final Long teamId;
+    private final SolverJobStatus status;
+    private final LocalDateTime windowStart;
+    private final LocalDateTime windowEnd;
+    private final long timeBudgetMs;
+    private final boolean warmStart;
+    private final boolean apply;
+    private final LocalDateTime submittedAt;
+    private final LocalDateTime startedAt;
+    private final LocalDateTime finishedAt;
+    private final Long hardScore;
+    private final Long softScore;
+    private final Integer unfilledSlots;
+    private final Long iterations;
+    private final String result;
+    private final String error;
+
+    public SolverJobDTO(SolverJob job) {
+        this.id = job.getId();
+        this.teamId = job.getTeam().getId();
+        this.status = job.getStatus();
+        this.windowStart = job.getWindowStart();
+        this.windowEnd = job.getWindowEnd();
+        this.timeBudgetMs = job.getTimeBudgetMs();
+        this.warmStart = job.isWarmStart();
+        this.apply = job.isApply();
+        this.submittedAt = job.getSubmittedAt();
+        this.startedAt = job.getStartedAt();
+        this.finishedAt = job.getFinishedAt();
+        this.hardScore = job.getHardScore();
+        this.softScore = job.getSoftScore();
+        this.unfilledSlots = job.getUnfilledSlots();
+        this.iterations = job.getIterations();
+        this.result = job.getResult();
+        this.error = job.getError();
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public Long getTeamId() { return teamId; }
+    public SolverJobStatus getStatus() { return status; }
+    public LocalDateTime getWindowStart() { return windowStart; }
+    public LocalDateTime getWindowEnd() { return windowEnd; }
+    public long getTimeBudgetMs() { return timeBudgetMs; }
+    public boolean isWarmStart() { return warmStart; }
+    public boolean isApply() { return apply; }
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public Long getHardScore() { return hardScore; }
+    public Long getSoftScore() { return softScore; }
+    public Integer getUnfilledSlots() { return unfilledSlots; }
+    public Long getIterations() { return iterations; }
+    // Already JSON; embedded as is
+    @JsonRawValue
+    public String getResult() { return result; }
+    public String getError() { return error; }
+}
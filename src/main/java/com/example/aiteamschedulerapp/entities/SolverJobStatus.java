@@ -0,0 +1,13 @@
+package com.example.aiteamschedulerapp.entities;
+
+public enum SolverJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this != QUEUED && this != RUNNING;
+    }
+}
@@ -4,9 +4,12 @@ package com.example.aiteamschedulerapp.entities;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
 @Table(name = "teams")
@@ -24,13 +27,17 @@ public class Team {
     @JoinColumn(name = "manager_id")
     private User manager;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Rosters are loaded only by the queries that need them (see TeamRepository)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinTable(
             name = "team_members",
             joinColumns = @JoinColumn(name = "team_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_id")
+            inverseJoinColumns = @JoinColumn(name = "user_id"),
+            indexes = @Index(name = "ux_team_members_team_user", columnList = "team_id, user_id", unique = true)
     )
-    private List<User> members;
+    private Set<User> members = new HashSet<>();
 
     public Long getId() {
         return id;
@@ -56,11 +63,11 @@ public class Team {
         this.manager = manager;
     }
 
-    public List<User> getMembers() {
+    public Set<User> getMembers() {
         return members;
     }
 
-    public void setMembers(List<User> members) {
+    public void setMembers(Set<User> members) {
         this.members = members;
     }
 }
@@ -0,0 +1,22 @@
+package com.example.aiteamschedulerapp.entities;
+
+import java.util.List;
+
+public class TeamAvailability {
+    // Members free for the whole requested window
+    private final List<Long> freeMemberIds;
+    private final List<Long> busyMemberIds;
+    // Parts of the window in which every member is free
+    private final List<TimeWindow> commonFreeWindows;
+
+    public TeamAvailability(List<Long> freeMemberIds, List<Long> busyMemberIds, List<TimeWindow> commonFreeWindows) {
+        this.freeMemberIds = freeMemberIds;
+        this.busyMemberIds = busyMemberIds;
+        this.commonFreeWindows = commonFreeWindows;
+    }
+
+    // Getters
+    public List<Long> getFreeMemberIds() { return freeMemberIds; }
+    public List<Long> getBusyMemberIds() { return busyMemberIds; }
+    public List<TimeWindow> getCommonFreeWindows() { return commonFreeWindows; }
+}
@@ -0,0 +1,22 @@
+package com.example.aiteamschedulerapp.entities;
+
+import java.util.List;
+import java.util.Map;
+
+public class TeamCreationResult {
+    private final Team team;
+    private final List<String> invitedEmails;
+    // Emails that could not be invited, with the reason
+    private final Map<String, String> conflicts;
+
+    public TeamCreationResult(Team team, List<String> invitedEmails, Map<String, String> conflicts) {
+        this.team = team;
+        this.invitedEmails = invitedEmails;
+        this.conflicts = conflicts;
+    }
+
+    // Getters
+    public Team getTeam() { return team; }
+    public List<String> getInvitedEmails() { return invitedEmails; }
+    public Map<String, String> getConflicts() { return conflicts; }
+}
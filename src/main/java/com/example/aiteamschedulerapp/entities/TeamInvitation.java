@@ -10,13 +10,22 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "team_invitations")
+@Table(name = "team_invitations", indexes = {
+        @Index(name = "idx_team_invitations_mail_due", columnList = "mail_status, next_mail_attempt_at"),
+        @Index(name = "idx_team_invitations_claimed_by", columnList = "claimed_by"),
+        @Index(name = "idx_team_invitations_unprocessed", columnList = "accepted, processed_at, id"),
+        // Token validation is a single probe on (token, expiry); the reaper range-scans expires_at
+        @Index(name = "idx_team_invitations_token_expiry", columnList = "invitation_token, expires_at"),
+        @Index(name = "idx_team_invitations_expires_at", columnList = "expires_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class TeamInvitation {
+    // Pooled sequence so Hibernate can batch invitation inserts (IDENTITY forces one round-trip per row)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_invitations_seq")
+    @SequenceGenerator(name = "team_invitations_seq", sequenceName = "team_invitations_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true)
@@ -33,6 +42,29 @@ public class TeamInvitation {
     private LocalDateTime expiresAt;
     private boolean accepted;
 
+    // Set once the invitee has been added to the team; unprocessed accepted rows are picked up incrementally
+    private LocalDateTime processedAt;
+
+    // Accepted rows whose invitee has no account yet are skipped by the processor until this time
+    private LocalDateTime nextProcessingAttemptAt;
+
+    // Outbox state for the invitation e-mail, drained by InvitationMailDispatcher
+    @Enumerated(EnumType.STRING)
+    private InvitationMailStatus mailStatus;
+
+    @Column(columnDefinition = "integer not null default 0")
+    private int mailAttempts;
+
+    private LocalDateTime nextMailAttemptAt;
+    private LocalDateTime mailSentAt;
+
+    @Column(length = 500)
+    private String lastMailError;
+
+    // Dispatcher batch that currently holds the e-mail, so concurrent instances never send it twice
+    private String claimedBy;
+    private LocalDateTime claimedAt;
+
     // Generate a unique invitation token
     public static String generateToken() {
         return UUID.randomUUID().toString();
@@ -93,4 +125,76 @@ public class TeamInvitation {
     public void setAccepted(boolean accepted) {
         this.accepted = accepted;
     }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+
+    public LocalDateTime getNextProcessingAttemptAt() {
+        return nextProcessingAttemptAt;
+    }
+
+    public void setNextProcessingAttemptAt(LocalDateTime nextProcessingAttemptAt) {
+        this.nextProcessingAttemptAt = nextProcessingAttemptAt;
+    }
+
+    public InvitationMailStatus getMailStatus() {
+        return mailStatus;
+    }
+
+    public void setMailStatus(InvitationMailStatus mailStatus) {
+        this.mailStatus = mailStatus;
+    }
+
+    public int getMailAttempts() {
+        return mailAttempts;
+    }
+
+    public void setMailAttempts(int mailAttempts) {
+        this.mailAttempts = mailAttempts;
+    }
+
+    public LocalDateTime getNextMailAttemptAt() {
+        return nextMailAttemptAt;
+    }
+
+    public void setNextMailAttemptAt(LocalDateTime nextMailAttemptAt) {
+        this.nextMailAttemptAt = nextMailAttemptAt;
+    }
+
+    public LocalDateTime getMailSentAt() {
+        return mailSentAt;
+    }
+
+    public void setMailSentAt(LocalDateTime mailSentAt) {
+        this.mailSentAt = mailSentAt;
+    }
+
+    public String getLastMailError() {
+        return lastMailError;
+    }
+
+    public void setLastMailError(String lastMailError) {
+        this.lastMailError = lastMailError;
+    }
+
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public LocalDateTime getClaimedAt() {
+        return claimedAt;
+    }
+
+    public void setClaimedAt(LocalDateTime claimedAt) {
+        this.claimedAt = claimedAt;
+    }
 }
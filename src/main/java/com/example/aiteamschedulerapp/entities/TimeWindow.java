@@ -0,0 +1,19 @@
+package com.example.aiteamschedulerapp.entities;
+
+import java.time.LocalDateTime;
+
+/**
+ * A half-open time range [startTime, endTime).
+ */
+public class TimeWindow {
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+
+    public TimeWindow(LocalDateTime startTime, LocalDateTime endTime) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    public LocalDateTime getStartTime() { return startTime; }
+    public LocalDateTime getEndTime() { return endTime; }
+}
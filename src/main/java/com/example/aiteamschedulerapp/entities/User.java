@@ -6,9 +6,14 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Objects;
+
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_email", columnList = "email"),
+        @Index(name = "idx_users_role", columnList = "role")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,7 +32,29 @@ public class User {
     @Enumerated(EnumType.STRING)
     private UserRole role;
 
+    // Assigned by Keycloak before the row is first saved and never changed afterwards
+    @Column(updatable = false)
     private String keycloakId;
+
+    // Equal by id once persisted, by identity before that. The hash uses the Keycloak id instead, which is set
+    // before saving and never changes, so a user keeps its bucket when saving assigns an id; getters rather than
+    // the fields so Hibernate proxies compare correctly.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof User other)) {
+            return false;
+        }
+        return getId() != null && getId().equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getKeycloakId());
+    }
+
     public Long getId() {
         return id;
     }
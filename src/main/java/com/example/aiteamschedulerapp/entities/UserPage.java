@@ -0,0 +1,22 @@
+package com.example.aiteamschedulerapp.entities;
+
+import java.util.List;
+
+public class UserPage {
+    private final List<UserDto> items;
+    // Opaque keyset cursor for the next page, null on the last page
+    private final String nextCursor;
+    // Approximate number of matching users, only computed for the first page
+    private final Long totalEstimate;
+
+    public UserPage(List<UserDto> items, String nextCursor, Long totalEstimate) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.totalEstimate = totalEstimate;
+    }
+
+    // Getters
+    public List<UserDto> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public Long getTotalEstimate() { return totalEstimate; }
+}
@@ -0,0 +1,9 @@
+package com.example.aiteamschedulerapp.repositories;
+
+import com.example.aiteamschedulerapp.entities.AvailabilityCalendar;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AvailabilityCalendarRepository extends JpaRepository<AvailabilityCalendar, Long> {
+}
@@ -0,0 +1,12 @@
+package com.example.aiteamschedulerapp.repositories;
+
+/**
+ * Thrown by paginated queries for a sort or cursor they cannot interpret; the caller's input, not a data access
+ * failure, so it is deliberately not a DataAccessException.
+ */
+public class InvalidPageRequestException extends RuntimeException {
+
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
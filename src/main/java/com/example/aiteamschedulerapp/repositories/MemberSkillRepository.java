@@ -0,0 +1,24 @@
+package com.example.aiteamschedulerapp.repositories;
+
+import com.example.aiteamschedulerapp.entities.MemberSkill;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MemberSkillRepository extends JpaRepository<MemberSkill, Long> {
+
+    @Query("SELECT s.user.id AS userId, s.skill AS skill FROM MemberSkill s WHERE s.user.id IN :userIds")
+    List<SkillRow> findRowsByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    List<MemberSkill> findByUser_Id(Long userId);
+
+    interface SkillRow {
+        Long getUserId();
+        String getSkill();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.aiteamschedulerapp.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC batch writes to the shift_assignments table.
+ */
+@Repository
+public class ShiftAssignmentBatchRepository {
+
+    private static final String INSERT_ASSIGNMENT =
+            "INSERT INTO shift_assignments (shift_id, user_id, assigned_at) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public ShiftAssignmentBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Replaces all assignments of the given shifts with (shiftId, userId) pairs; call inside a transaction.
+     */
+    public void replaceAssignments(Collection<Long> shiftIds, List<long[]> shiftUserPairs, LocalDateTime assignedAt) {
+        if (!shiftIds.isEmpty()) {
+            namedJdbcTemplate.update("DELETE FROM shift_assignments WHERE shift_id IN (:shiftIds)",
+                    new MapSqlParameterSource("shiftIds", shiftIds));
+        }
+        if (shiftUserPairs.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(assignedAt);
+        jdbcTemplate.batchUpdate(INSERT_ASSIGNMENT, shiftUserPairs, shiftUserPairs.size(), (ps, pair) -> {
+            ps.setLong(1, pair[0]);
+            ps.setLong(2, pair[1]);
+            ps.setTimestamp(3, timestamp);
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.aiteamschedulerapp.repositories;
+
+import com.example.aiteamschedulerapp.entities.ShiftAssignment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ShiftAssignmentRepository extends JpaRepository<ShiftAssignment, Long> {
+
+    @Query("SELECT a.shift.id AS shiftId, a.user.id AS userId FROM ShiftAssignment a WHERE a.shift.id IN :shiftIds")
+    List<AssignmentRow> findRowsByShiftIds(@Param("shiftIds") Collection<Long> shiftIds);
+
+    interface AssignmentRow {
+        Long getShiftId();
+        Long getUserId();
+    }
+}
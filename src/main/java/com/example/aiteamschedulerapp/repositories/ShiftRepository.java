@@ -0,0 +1,21 @@
+package com.example.aiteamschedulerapp.repositories;
+
+import com.example.aiteamschedulerapp.entities.Shift;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ShiftRepository extends JpaRepository<Shift, Long> {
+
+    // Shifts of a team that overlap [from, to)
+    @Query("SELECT s FROM Shift s WHERE s.team.id = :teamId AND s.startTime < :to AND s.endTime > :from " +
+            "ORDER BY s.startTime, s.id")
+    List<Shift> findInWindow(@Param("teamId") Long teamId,
+                             @Param("from") LocalDateTime from,
+                             @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,34 @@
+package com.example.aiteamschedulerapp.repositories;
+
+import com.example.aiteamschedulerapp.entities.SolverJob;
+import com.example.aiteamschedulerapp.entities.SolverJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface SolverJobRepository extends JpaRepository<SolverJob, Long> {
+
+    Optional<SolverJob> findByIdAndTeam_Id(Long id, Long teamId);
+
+    /**
+     * Fails jobs the given instance left queued or running before it restarted; the queue itself lives in
+     * memory. Jobs of other instances are left alone. Jobs without an owner predate owners and are failed too.
+     * @return Number of jobs marked failed
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE SolverJob j SET j.status = com.example.aiteamschedulerapp.entities.SolverJobStatus.FAILED, " +
+            "j.finishedAt = :now, j.error = :error WHERE j.status IN :statuses AND (j.owner = :owner OR j.owner IS NULL)")
+    int failUnfinished(@Param("statuses") Collection<SolverJobStatus> statuses,
+                       @Param("owner") String owner,
+                       @Param("now") LocalDateTime now,
+                       @Param("error") String error);
+}
@@ -1,17 +1,120 @@
 package com.example.aiteamschedulerapp.repositories;
 
+import com.example.aiteamschedulerapp.entities.InvitationDetails;
+import com.example.aiteamschedulerapp.entities.InvitationMailStatus;
 import com.example.aiteamschedulerapp.entities.TeamInvitation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface TeamInvitationRepository extends JpaRepository<TeamInvitation, Long> {
-    Optional<TeamInvitation> findByInvitationToken(String token);
+    // Invitation, team and manager in one query; the team roster stays unloaded.
+    // Expiry (and acceptance) are filtered in the query so expired rows are never materialised.
+    @EntityGraph(attributePaths = {"team", "team.manager"})
+    Optional<TeamInvitation> findByInvitationTokenAndExpiresAtAfter(String token, LocalDateTime now);
+
+    @EntityGraph(attributePaths = {"team", "team.manager"})
+    Optional<TeamInvitation> findByInvitationTokenAndAcceptedFalseAndExpiresAtAfter(String token, LocalDateTime now);
+
+    // Single-query projection for the public invitation endpoints; no entities are loaded
+    @Query("SELECT new com.example.aiteamschedulerapp.entities.InvitationDetails(" +
+            "t.name, m.firstName, m.lastName, i.email, i.expiresAt, i.accepted) " +
+            "FROM TeamInvitation i JOIN i.team t LEFT JOIN t.manager m " +
+            "WHERE i.invitationToken = :token AND i.expiresAt > :now")
+    Optional<InvitationDetails> findDetailsByToken(@Param("token") String token, @Param("now") LocalDateTime now);
     Optional<TeamInvitation> findByEmail(String email);
     List<TeamInvitation> findByTeam_Id(Long teamId);
 
-    List<TeamInvitation> findByAcceptedTrue();
+    // Accepted invitations not yet turned into memberships and not deferred, in id order after the given watermark
+    @Query("SELECT i.id AS id, i.email AS email, i.team.id AS teamId FROM TeamInvitation i " +
+            "WHERE i.accepted = true AND i.processedAt IS NULL AND i.id > :afterId " +
+            "AND (i.nextProcessingAttemptAt IS NULL OR i.nextProcessingAttemptAt <= :now) ORDER BY i.id")
+    List<PendingMembership> findUnprocessedAccepted(@Param("afterId") Long afterId, @Param("now") LocalDateTime now,
+                                                    Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE TeamInvitation i SET i.processedAt = :processedAt WHERE i.id IN :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query("UPDATE TeamInvitation i SET i.nextProcessingAttemptAt = :until WHERE i.id IN :ids")
+    int deferProcessing(@Param("ids") Collection<Long> ids, @Param("until") LocalDateTime until);
+
+    /**
+     * Deletes one bounded batch of expired, never-accepted invitations and of accepted invitations
+     * that were turned into memberships before the retention cut-off.
+     * @return Number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM team_invitations WHERE id IN (" +
+            "SELECT id FROM team_invitations " +
+            "WHERE (accepted = false AND expires_at < :expiredBefore) " +
+            "OR (accepted = true AND processed_at < :processedBefore) " +
+            "ORDER BY id LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteReapable(@Param("expiredBefore") LocalDateTime expiredBefore,
+                       @Param("processedBefore") LocalDateTime processedBefore,
+                       @Param("batchSize") int batchSize);
+
+    interface PendingMembership {
+        Long getId();
+        String getEmail();
+        Long getTeamId();
+    }
+
+    @Query("SELECT i.email FROM TeamInvitation i WHERE i.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Claims one batch of due invitation e-mails for the caller. Rows locked by another dispatcher are
+     * skipped, and claimed rows are pushed to the end of the lease so nobody else picks them up meanwhile;
+     * if the claimer dies, they fall due again once the lease runs out.
+     * @return Number of claimed rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE team_invitations SET claimed_by = :claimedBy, claimed_at = :now, " +
+            "next_mail_attempt_at = :leaseUntil WHERE id IN (" +
+            "SELECT id FROM team_invitations " +
+            "WHERE mail_status = 'PENDING' AND next_mail_attempt_at <= :now " +
+            "ORDER BY next_mail_attempt_at LIMIT :batchSize FOR UPDATE SKIP LOCKED)",
+            nativeQuery = true)
+    int claimMailDue(@Param("claimedBy") String claimedBy,
+                     @Param("now") LocalDateTime now,
+                     @Param("leaseUntil") LocalDateTime leaseUntil,
+                     @Param("batchSize") int batchSize);
+
+    List<TeamInvitation> findByClaimedByAndMailStatus(String claimedBy, InvitationMailStatus mailStatus);
+
+    // Only the mail columns are written, so acceptance or processing that happened during the send is kept
+    @Transactional
+    @Modifying
+    @Query("UPDATE TeamInvitation i " +
+            "SET i.mailStatus = com.example.aiteamschedulerapp.entities.InvitationMailStatus.SENT, i.mailSentAt = :now, " +
+            "i.lastMailError = NULL, i.claimedBy = NULL, i.claimedAt = NULL " +
+            "WHERE i.id IN :ids AND i.claimedBy = :claimedBy")
+    int markMailSent(@Param("ids") Collection<Long> ids, @Param("claimedBy") String claimedBy,
+                     @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE TeamInvitation i SET i.mailStatus = :status, i.mailAttempts = :attempts, " +
+            "i.nextMailAttemptAt = :nextAttemptAt, i.lastMailError = :error, i.claimedBy = NULL, i.claimedAt = NULL " +
+            "WHERE i.id = :id AND i.claimedBy = :claimedBy")
+    int recordMailFailure(@Param("id") Long id, @Param("claimedBy") String claimedBy,
+                          @Param("status") InvitationMailStatus status, @Param("attempts") int attempts,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
 }
@@ -0,0 +1,46 @@
+package com.example.aiteamschedulerapp.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * JDBC batch writes to the team_members join table.
+ */
+@Repository
+public class TeamMemberBatchRepository {
+
+    private static final String INSERT_MEMBER =
+            "INSERT INTO team_members (team_id, user_id) SELECT ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM team_members WHERE team_id = ? AND user_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TeamMemberBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds (teamId, userId) pairs in one JDBC batch, skipping pairs that already exist.
+     * @return Number of memberships actually inserted
+     */
+    public int addMembers(List<long[]> teamUserPairs) {
+        if (teamUserPairs.isEmpty()) {
+            return 0;
+        }
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_MEMBER, teamUserPairs, teamUserPairs.size(), (ps, pair) -> {
+            ps.setLong(1, pair[0]);
+            ps.setLong(2, pair[1]);
+            ps.setLong(3, pair[0]);
+            ps.setLong(4, pair[1]);
+        })[0];
+
+        int inserted = 0;
+        for (int count : counts) {
+            // Drivers may report SUCCESS_NO_INFO (-2) for batched statements
+            inserted += Math.max(count, 0);
+        }
+        return inserted;
+    }
+}
@@ -1,17 +1,59 @@
 package com.example.aiteamschedulerapp.repositories;
 
 import com.example.aiteamschedulerapp.entities.Team;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TeamRepository extends JpaRepository<Team, Long> {
 
-    @Query("SELECT DISTINCT t FROM Team t LEFT JOIN FETCH t.members WHERE t.manager.id = :managerId")
+    @Query("SELECT DISTINCT t FROM Team t LEFT JOIN FETCH t.manager LEFT JOIN FETCH t.members WHERE t.manager.id = :managerId")
     List<Team> findByManager_Id(@Param("managerId") Long managerId);
 
+    // Team plus its roster in one query, for paths that modify membership
+    @EntityGraph(attributePaths = {"manager", "members"})
+    Optional<Team> findWithMembersById(Long id);
+
+    // Single-row membership operations on team_members, backed by its unique (team_id, user_id) index
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM team_members WHERE team_id = :teamId AND user_id = :userId)",
+            nativeQuery = true)
+    boolean isMember(@Param("teamId") Long teamId, @Param("userId") Long userId);
+
+    @Query(value = "SELECT user_id FROM team_members WHERE team_id = :teamId ORDER BY user_id", nativeQuery = true)
+    List<Long> findMemberIds(@Param("teamId") Long teamId);
+
+    // Rosters of several teams in one round-trip
+    @Query(value = "SELECT team_id AS teamId, user_id AS userId FROM team_members WHERE team_id IN (:teamIds)",
+            nativeQuery = true)
+    List<MemberRow> findMemberRows(@Param("teamIds") Collection<Long> teamIds);
+
+    @Query(value = "SELECT team_id FROM team_members WHERE user_id = :userId", nativeQuery = true)
+    List<Long> findTeamIdsByMemberId(@Param("userId") Long userId);
+
+    @Query("SELECT t.id FROM Team t WHERE t.manager.id = :managerId")
+    List<Long> findIdsByManagerId(@Param("managerId") Long managerId);
+
+    @Modifying
+    @Query(value = "INSERT INTO team_members (team_id, user_id) SELECT :teamId, :userId " +
+            "WHERE NOT EXISTS (SELECT 1 FROM team_members WHERE team_id = :teamId AND user_id = :userId)",
+            nativeQuery = true)
+    int addMember(@Param("teamId") Long teamId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM team_members WHERE team_id = :teamId AND user_id = :userId", nativeQuery = true)
+    int removeMember(@Param("teamId") Long teamId, @Param("userId") Long userId);
+
+    interface MemberRow {
+        Long getTeamId();
+        Long getUserId();
+    }
 }
@@ -1,15 +1,32 @@
 package com.example.aiteamschedulerapp.repositories;
 
 import com.example.aiteamschedulerapp.entities.User;
+import com.example.aiteamschedulerapp.entities.UserDto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
     Optional<User> findByKeycloakId(String keycloakId);
     boolean existsByEmail(String email);
+    List<User> findByEmailIn(Collection<String> emails);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Registration stores emails as typed, so callers holding lower-cased emails compare without case
+    @Query("SELECT LOWER(u.email) FROM User u WHERE LOWER(u.email) IN :emails")
+    Set<String> findExistingLowerCaseEmails(@Param("emails") Collection<String> lowerCaseEmails);
+
+    @Query("SELECT new com.example.aiteamschedulerapp.entities.UserDto(u.id, u.firstName, u.lastName, u.email, u.role) FROM User u")
+    List<UserDto> findAllForSearch();
 
 }
@@ -0,0 +1,19 @@
+package com.example.aiteamschedulerapp.repositories;
+
+import com.example.aiteamschedulerapp.entities.UserPage;
+import com.example.aiteamschedulerapp.entities.UserRole;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Keyset-paginated listing of users as UserDto projections.
+     * @param role Optional role filter
+     * @param namePrefix Optional case-insensitive prefix on first name, last name or email
+     * @param sort One of id, email, lastName
+     * @param descending Sort direction
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param limit Page size
+     * @throws InvalidPageRequestException If the sort is not supported or the cursor cannot be decoded
+     */
+    UserPage findPage(UserRole role, String namePrefix, String sort, boolean descending, String cursor, int limit);
+}
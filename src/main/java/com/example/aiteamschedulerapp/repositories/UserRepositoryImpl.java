@@ -0,0 +1,140 @@
+package com.example.aiteamschedulerapp.repositories;
+
+import com.example.aiteamschedulerapp.entities.UserDto;
+import com.example.aiteamschedulerapp.entities.UserPage;
+import com.example.aiteamschedulerapp.entities.UserRole;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keyset pagination for UserRepository. Pages are read straight into UserDto constructor projections,
+ * so no User entities are loaded into the persistence context.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public UserPage findPage(UserRole role, String namePrefix, String sort, boolean descending, String cursor, int limit) {
+        // Nullable sort columns are coalesced so the keyset comparison stays total
+        String sortExpression = switch (sort == null ? "id" : sort) {
+            case "email" -> "COALESCE(u.email, '')";
+            case "lastName" -> "COALESCE(u.lastName, '')";
+            case "id" -> "u.id";
+            default -> throw new InvalidPageRequestException("Unsupported sort: " + sort);
+        };
+        boolean sortById = "u.id".equals(sortExpression);
+        String direction = descending ? "DESC" : "ASC";
+        String comparison = descending ? "<" : ">";
+
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        if (role != null) {
+            where.append(" AND u.role = :role");
+        }
+        String prefixPattern = null;
+        if (namePrefix != null && !namePrefix.isBlank()) {
+            prefixPattern = escapeLike(namePrefix.trim().toLowerCase(Locale.ROOT)) + "%";
+            where.append(" AND (LOWER(u.firstName) LIKE :prefix ESCAPE '\\' OR LOWER(u.lastName) LIKE :prefix ESCAPE '\\'"
+                    + " OR LOWER(u.email) LIKE :prefix ESCAPE '\\')");
+        }
+
+        Cursor after = cursor != null && !cursor.isBlank() ? Cursor.decode(cursor) : null;
+        StringBuilder keyset = new StringBuilder();
+        if (after != null) {
+            if (sortById) {
+                keyset.append(" AND u.id ").append(comparison).append(" :afterId");
+            } else {
+                keyset.append(" AND (").append(sortExpression).append(' ').append(comparison).append(" :afterValue")
+                        .append(" OR (").append(sortExpression).append(" = :afterValue AND u.id ")
+                        .append(comparison).append(" :afterId))");
+            }
+        }
+
+        String jpql = "SELECT new com.example.aiteamschedulerapp.entities.UserDto(u.id, u.firstName, u.lastName, u.email, u.role)"
+                + " FROM User u" + where + keyset
+                + " ORDER BY " + (sortById ? "" : sortExpression + " " + direction + ", ") + "u.id " + direction;
+
+        TypedQuery<UserDto> query = entityManager.createQuery(jpql, UserDto.class);
+        if (role != null) {
+            query.setParameter("role", role);
+        }
+        if (prefixPattern != null) {
+            query.setParameter("prefix", prefixPattern);
+        }
+        if (after != null) {
+            query.setParameter("afterId", after.id());
+            if (!sortById) {
+                query.setParameter("afterValue", after.value());
+            }
+        }
+        // One extra row tells us whether there is a next page
+        List<UserDto> rows = query.setMaxResults(limit + 1).getResultList();
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            UserDto last = rows.get(limit - 1);
+            String lastValue = switch (sortExpression) {
+                case "COALESCE(u.email, '')" -> last.getEmail() == null ? "" : last.getEmail();
+                case "COALESCE(u.lastName, '')" -> last.getLastName() == null ? "" : last.getLastName();
+                default -> "";
+            };
+            nextCursor = new Cursor(last.getId(), lastValue).encode();
+        }
+
+        Long totalEstimate = after == null ? estimateTotal(where.toString(), role, prefixPattern) : null;
+        return new UserPage(rows, nextCursor, totalEstimate);
+    }
+
+    private long estimateTotal(String where, UserRole role, String prefixPattern) {
+        if (role == null && prefixPattern == null) {
+            // Planner statistics are good enough for an unfiltered table and avoid a full count(*)
+            Object estimate = entityManager.createNativeQuery(
+                            "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE relname = 'users'")
+                    .getResultStream()
+                    .findFirst()
+                    .orElse(null);
+            if (estimate instanceof Number number && number.longValue() >= 0) {
+                return number.longValue();
+            }
+        }
+
+        TypedQuery<Long> count = entityManager.createQuery("SELECT COUNT(u) FROM User u" + where, Long.class);
+        if (role != null) {
+            count.setParameter("role", role);
+        }
+        if (prefixPattern != null) {
+            count.setParameter("prefix", prefixPattern);
+        }
+        return count.getSingleResult();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private record Cursor(long id, String value) {
+
+        String encode() {
+            String raw = id + "|" + value;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new Cursor(Long.parseLong(raw.substring(0, separator)), raw.substring(separator + 1));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new InvalidPageRequestException("Invalid cursor");
+            }
+        }
+    }
+}
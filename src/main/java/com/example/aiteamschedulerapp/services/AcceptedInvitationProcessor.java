@@ -0,0 +1,88 @@
+package com.example.aiteamschedulerapp.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job that turns accepted invitations into team memberships, one fixed-size chunk
+ * (and one transaction) at a time, so each run only touches rows that are still unprocessed.
+ * Invitations whose invitee has not registered yet are deferred, so they drop out of the scan until the
+ * retry delay has passed instead of being re-read on every run.
+ */
+@Component
+public class AcceptedInvitationProcessor {
+    private static final Logger logger = LoggerFactory.getLogger(AcceptedInvitationProcessor.class);
+
+    private final TeamService teamService;
+    private final int chunkSize;
+    private final Duration retryDelay;
+
+    private final Counter processedCounter;
+    private final Counter membershipsCounter;
+    private final Counter deferredCounter;
+    private final Counter chunksCounter;
+    private final Timer runTimer;
+    private final AtomicLong watermark = new AtomicLong();
+
+    public AcceptedInvitationProcessor(
+            TeamService teamService,
+            MeterRegistry meterRegistry,
+            @Value("${app.invitations.processing.chunk-size:500}") int chunkSize,
+            @Value("${app.invitations.processing.retry-delay-ms:3600000}") long retryDelayMs
+    ) {
+        this.teamService = teamService;
+        this.chunkSize = chunkSize;
+        this.retryDelay = Duration.ofMillis(retryDelayMs);
+
+        this.processedCounter = Counter.builder("invitations.accepted.processed").register(meterRegistry);
+        this.membershipsCounter = Counter.builder("invitations.accepted.memberships.added").register(meterRegistry);
+        this.deferredCounter = Counter.builder("invitations.accepted.deferred").register(meterRegistry);
+        this.chunksCounter = Counter.builder("invitations.accepted.chunks").register(meterRegistry);
+        this.runTimer = Timer.builder("invitations.accepted.run.duration").register(meterRegistry);
+        meterRegistry.gauge("invitations.accepted.watermark", watermark);
+    }
+
+    @Scheduled(fixedDelayString = "${app.invitations.processing.interval-ms:60000}")
+    public void processScheduled() {
+        processAll();
+    }
+
+    /**
+     * Drains all unprocessed accepted invitations.
+     * @return Number of memberships added
+     */
+    public synchronized int processAll() {
+        return runTimer.record(() -> {
+            long afterId = 0L;
+            int added = 0;
+            while (true) {
+                TeamService.AcceptedInvitationChunk chunk = teamService.processAcceptedInvitationChunk(afterId, chunkSize,
+                        retryDelay);
+                if (chunk.watermark() == afterId) {
+                    break;
+                }
+                afterId = chunk.watermark();
+                added += chunk.membershipsAdded();
+
+                watermark.set(afterId);
+                chunksCounter.increment();
+                processedCounter.increment(chunk.processed());
+                deferredCounter.increment(chunk.deferred());
+                membershipsCounter.increment(chunk.membershipsAdded());
+            }
+            if (added > 0) {
+                logger.info("Accepted invitation processing added {} memberships", added);
+            }
+            return added;
+        });
+    }
+}
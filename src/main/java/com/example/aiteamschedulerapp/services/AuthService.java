@@ -2,31 +2,58 @@ package com.example.aiteamschedulerapp.services;
 
 import com.example.aiteamschedulerapp.entities.User;
 import com.example.aiteamschedulerapp.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.Objects;
 
 @Service
 public class AuthService {
+    private static final String REQUEST_ATTRIBUTE = AuthService.class.getName() + ".currentUser";
+
     private final UserRepository userRepository;
 
-    public AuthService(UserRepository userRepository) {
+    // Short-lived principal -> user snapshot cache shared across requests, keyed by email, preferred_username or
+    // subject. Each request gets its own detached copy, so nothing a caller does leaks into the cache; role changes
+    // and deletions evict the entry (see evictUser).
+    private final Cache<String, User> usersByPrincipal;
+
+    public AuthService(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.current-user-cache.ttl-seconds:30}") long ttlSeconds,
+            @Value("${app.current-user-cache.max-size:5000}") long maxSize
+    ) {
         this.userRepository = userRepository;
+        this.usersByPrincipal = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByPrincipal, "auth.current-user");
     }
 
     public User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
+        String email;
+
         // Check if the authentication is a JwtAuthenticationToken
         if (authentication instanceof JwtAuthenticationToken) {
             JwtAuthenticationToken jwtToken = (JwtAuthenticationToken) authentication;
             Jwt jwt = jwtToken.getToken();
 
-            // Extract either email or subject from the token
-            String email = null;
-
             // Try to get email from token claims
             if (jwt.hasClaim("email")) {
                 email = jwt.getClaimAsString("email");
@@ -36,21 +63,58 @@ public class AuthService {
                 // Use subject as fallback
                 email = jwt.getSubject();
             }
-
-            // Ensure email is final for the lambda expression
-            final String finalEmail = email;
-
-            return userRepository.findByEmail(finalEmail)
-                    .orElseThrow(() -> new RuntimeException("User not found with email: " + finalEmail));
+        } else {
+            // Fallback to traditional authentication
+            email = authentication.getName();
         }
 
-        // Fallback to traditional authentication
-        String email = authentication.getName();
+        // Same request asking again (controller plus service) never leaves this thread
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        String memoKey = REQUEST_ATTRIBUTE + ":" + email;
+        if (requestAttributes != null) {
+            Object memo = requestAttributes.getAttribute(memoKey, RequestAttributes.SCOPE_REQUEST);
+            if (memo instanceof User memoized) {
+                return memoized;
+            }
+        }
 
         // Ensure email is final for the lambda expression
         final String finalEmail = email;
 
-        return userRepository.findByEmail(finalEmail)
-                .orElseThrow(() -> new RuntimeException("User not found with email: " + finalEmail));
-}
+        User snapshot = usersByPrincipal.get(finalEmail, key -> userRepository.findByEmail(key).map(AuthService::copyOf).orElse(null));
+        if (snapshot == null) {
+            throw new RuntimeException("User not found with email: " + finalEmail);
+        }
+        User user = copyOf(snapshot);
+
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(memoKey, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    /**
+     * Drops any cached resolution for the given email, e.g. after registration.
+     * @param email The principal email
+     */
+    public void evictUser(String email) {
+        if (email != null) {
+            usersByPrincipal.invalidate(email);
+        }
+    }
+
+    /**
+     * Drops every cached resolution pointing at this user, including entries keyed by an old email.
+     * @param user The updated or deleted user
+     */
+    public void evictUser(User user) {
+        evictUser(user.getEmail());
+        usersByPrincipal.asMap().values().removeIf(cached -> Objects.equals(cached.getId(), user.getId()));
+    }
+
+    // Detached copy of the scalar columns; User has no associations to carry over
+    private static User copyOf(User user) {
+        return new User(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getRole(),
+                user.getKeycloakId());
+    }
 }
@@ -0,0 +1,298 @@
+package com.example.aiteamschedulerapp.services;
+
+import com.example.aiteamschedulerapp.entities.TimeWindow;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * One member's availability as a bitset of 15-minute slots starting at midnight of {@code origin}; a set bit
+ * is a free slot. Instances are immutable: updates return a copy, so cached bitsets can be shared across threads.
+ * Range checks and team-wide intersections work a 64-slot word at a time.
+ */
+public final class AvailabilityBitset {
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private static final long SLOT_SECONDS = SLOT_MINUTES * 60L;
+
+    private final LocalDate origin;
+    private final int slotCount;
+    private final long[] words;
+
+    private AvailabilityBitset(LocalDate origin, int slotCount, long[] words) {
+        this.origin = origin;
+        this.slotCount = slotCount;
+        this.words = words;
+    }
+
+    public static AvailabilityBitset empty(LocalDate origin, int horizonDays) {
+        int slotCount = horizonDays * SLOTS_PER_DAY;
+        return new AvailabilityBitset(origin, slotCount, new long[wordCount(slotCount)]);
+    }
+
+    /**
+     * Every slot of the horizon free.
+     */
+    public static AvailabilityBitset full(LocalDate origin, int horizonDays) {
+        int slotCount = horizonDays * SLOTS_PER_DAY;
+        long[] words = new long[wordCount(slotCount)];
+        setRange(words, 0, slotCount);
+        return new AvailabilityBitset(origin, slotCount, words);
+    }
+
+    /**
+     * Reads a stored bitset; a bitset stored under a different horizon is cut or padded with busy slots.
+     */
+    public static AvailabilityBitset fromBytes(LocalDate origin, int horizonDays, byte[] bytes) {
+        int slotCount = horizonDays * SLOTS_PER_DAY;
+        long[] words = new long[wordCount(slotCount)];
+        ByteBuffer.wrap(bytes).asLongBuffer().get(words, 0, Math.min(words.length, bytes.length / Long.BYTES));
+        clearRange(words, slotCount, words.length * Long.SIZE);
+        return new AvailabilityBitset(origin, slotCount, words);
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES);
+        buffer.asLongBuffer().put(words);
+        return buffer.array();
+    }
+
+    public LocalDate getOrigin() {
+        return origin;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * The same availability with slot 0 at midnight of a later day; days that fall off the front are dropped
+     * and the new days at the end are busy.
+     */
+    public AvailabilityBitset rebase(LocalDate newOrigin) {
+        long days = ChronoUnit.DAYS.between(origin, newOrigin);
+        if (days == 0) {
+            return this;
+        }
+        if (days < 0 || days * SLOTS_PER_DAY >= slotCount) {
+            return new AvailabilityBitset(newOrigin, slotCount, new long[words.length]);
+        }
+        return new AvailabilityBitset(newOrigin, slotCount, shiftDown(words, (int) days * SLOTS_PER_DAY));
+    }
+
+    /**
+     * Marks [from, to) free. Only whole slots inside the window are marked, so partial slots stay busy.
+     */
+    public AvailabilityBitset withFree(LocalDateTime from, LocalDateTime to) {
+        long[] copy = words.clone();
+        setRange(copy, clamp(slotCeil(from)), clamp(slotFloor(to)));
+        return new AvailabilityBitset(origin, slotCount, copy);
+    }
+
+    /**
+     * Marks [from, to) busy, including slots the window only partly covers.
+     */
+    public AvailabilityBitset withBusy(LocalDateTime from, LocalDateTime to) {
+        long[] copy = words.clone();
+        clearRange(copy, clamp(slotFloor(from)), clamp(slotCeil(to)));
+        return new AvailabilityBitset(origin, slotCount, copy);
+    }
+
+    /**
+     * Whether every slot touched by [from, to) is free. Time outside the horizon is busy.
+     */
+    public boolean isFree(LocalDateTime from, LocalDateTime to) {
+        long first = slotFloor(from);
+        long end = slotCeil(to);
+        if (first < 0 || end > slotCount) {
+            return false;
+        }
+        return allSet(words, (int) first, (int) end);
+    }
+
+    /**
+     * Slots touched by [from, to) in which every one of the bitsets is free, as a mask for {@link #windows}.
+     * The bitsets must share an origin; only the words covering the window are visited.
+     */
+    static long[] intersect(Collection<AvailabilityBitset> bitsets, LocalDateTime from, LocalDateTime to) {
+        AvailabilityBitset any = bitsets.iterator().next();
+        int first = any.clamp(any.slotFloor(from));
+        int end = any.clamp(any.slotCeil(to));
+        long[] mask = new long[any.words.length];
+        setRange(mask, first, end);
+        int fromWord = first >>> 6;
+        int toWord = wordCount(end);
+        for (AvailabilityBitset bitset : bitsets) {
+            for (int i = fromWord; i < toWord; i++) {
+                mask[i] &= bitset.words[i];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Adds one to {@code counts[s]} for every start slot s in [from, to) at which [s, s + length) is entirely
+     * free. The starts are found with log2(length) shift-and-AND passes over the words.
+     */
+    void countRunStarts(int length, int from, int to, int[] counts) {
+        // Invariant: bit s is set when [s, s + covered) is free
+        long[] starts = words.clone();
+        int covered = 1;
+        while (covered < length) {
+            int step = Math.min(covered, length - covered);
+            long[] shifted = shiftDown(starts, step);
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] &= shifted[i];
+            }
+            covered += step;
+        }
+        for (int slot = nextSetBit(starts, from); slot >= 0 && slot < to; slot = nextSetBit(starts, slot + 1)) {
+            counts[slot]++;
+        }
+    }
+
+    /**
+     * The runs of set bits in a mask built by {@link #intersect}, as time windows.
+     */
+    List<TimeWindow> windows(long[] mask) {
+        List<TimeWindow> windows = new ArrayList<>();
+        int start = nextSetBit(mask, 0);
+        while (start >= 0) {
+            int end = nextClearBit(mask, start);
+            windows.add(new TimeWindow(timeOf(start), timeOf(end)));
+            start = nextSetBit(mask, end);
+        }
+        return windows;
+    }
+
+    LocalDateTime timeOf(int slot) {
+        return origin.atStartOfDay().plusMinutes((long) slot * SLOT_MINUTES);
+    }
+
+    private long slotFloor(LocalDateTime time) {
+        return Math.floorDiv(Duration.between(origin.atStartOfDay(), time).getSeconds(), SLOT_SECONDS);
+    }
+
+    long slotCeil(LocalDateTime time) {
+        return -Math.floorDiv(-Duration.between(origin.atStartOfDay(), time).getSeconds(), SLOT_SECONDS);
+    }
+
+    private static int wordCount(int slots) {
+        return (slots + 63) >>> 6;
+    }
+
+    private int clamp(long slot) {
+        return (int) Math.max(0, Math.min(slot, slotCount));
+    }
+
+    /**
+     * Moves every bit {@code bits} positions towards slot 0; the vacated high slots are busy.
+     */
+    private static long[] shiftDown(long[] words, int bits) {
+        int wordShift = bits >>> 6;
+        int bitShift = bits & 63;
+        long[] shifted = new long[words.length];
+        for (int i = 0; i + wordShift < words.length; i++) {
+            long low = words[i + wordShift] >>> bitShift;
+            long high = bitShift == 0 || i + wordShift + 1 >= words.length
+                    ? 0
+                    : words[i + wordShift + 1] << (64 - bitShift);
+            shifted[i] = low | high;
+        }
+        return shifted;
+    }
+
+    private static void setRange(long[] words, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            words[first] |= firstMask & lastMask;
+            return;
+        }
+        words[first] |= firstMask;
+        Arrays.fill(words, first + 1, last, -1L);
+        words[last] |= lastMask;
+    }
+
+    private static void clearRange(long[] words, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            words[first] &= ~(firstMask & lastMask);
+            return;
+        }
+        words[first] &= ~firstMask;
+        Arrays.fill(words, first + 1, last, 0L);
+        words[last] &= ~lastMask;
+    }
+
+    private static boolean allSet(long[] words, int from, int to) {
+        if (from >= to) {
+            return true;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            long mask = firstMask & lastMask;
+            return (words[first] & mask) == mask;
+        }
+        if ((words[first] & firstMask) != firstMask || (words[last] & lastMask) != lastMask) {
+            return false;
+        }
+        for (int i = first + 1; i < last; i++) {
+            if (words[i] != -1L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int nextSetBit(long[] words, int from) {
+        int index = from >>> 6;
+        if (index >= words.length) {
+            return -1;
+        }
+        long word = words[index] & (-1L << from);
+        while (word == 0) {
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+        return index * 64 + Long.numberOfTrailingZeros(word);
+    }
+
+    private static int nextClearBit(long[] words, int from) {
+        int index = from >>> 6;
+        if (index >= words.length) {
+            return from;
+        }
+        long word = ~words[index] & (-1L << from);
+        while (word == 0) {
+            if (++index == words.length) {
+                return words.length * 64;
+            }
+            word = ~words[index];
+        }
+        return index * 64 + Long.numberOfTrailingZeros(word);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.aiteamschedulerapp.services;
+
+/**
+ * Published after a member's availability calendar was saved.
+ */
+public record AvailabilityChangedEvent(Long userId) {
+}
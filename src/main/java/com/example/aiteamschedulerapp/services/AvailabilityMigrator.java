@@ -0,0 +1,102 @@
+package com.example.aiteamschedulerapp.services;
+
+import com.example.aiteamschedulerapp.entities.AvailabilityCalendar;
+import com.example.aiteamschedulerapp.repositories.AvailabilityCalendarRepository;
+import com.example.aiteamschedulerapp.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-time import of the per-window member_availability rows into bitset calendars. Members who already
+ * have a calendar are skipped, so the import is a no-op once it has run and never overwrites newer edits.
+ * The old table is left in place.
+ */
+@Component
+public class AvailabilityMigrator implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityMigrator.class);
+
+    private static final String LEGACY_TABLE_EXISTS =
+            "SELECT COUNT(*) FROM information_schema.tables WHERE LOWER(table_name) = 'member_availability'";
+    // Members whose windows all lie in the past still get an (all busy) calendar, as they had no free time
+    private static final String LEGACY_WINDOWS =
+            "SELECT user_id, start_time, end_time FROM member_availability " +
+            "WHERE user_id NOT IN (SELECT user_id FROM availability_calendars)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AvailabilityCalendarRepository calendarRepository;
+    private final UserRepository userRepository;
+    private final AvailabilityService availabilityService;
+    private final TransactionTemplate transactionTemplate;
+
+    public AvailabilityMigrator(
+            JdbcTemplate jdbcTemplate,
+            AvailabilityCalendarRepository calendarRepository,
+            UserRepository userRepository,
+            AvailabilityService availabilityService,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.calendarRepository = calendarRepository;
+        this.userRepository = userRepository;
+        this.availabilityService = availabilityService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer tables = jdbcTemplate.queryForObject(LEGACY_TABLE_EXISTS, Integer.class);
+        if (tables == null || tables == 0) {
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        Map<Long, AvailabilityBitset> imported = new HashMap<>();
+        AvailabilityBitset empty = AvailabilityBitset.empty(today, availabilityService.getHorizonDays());
+        jdbcTemplate.query(LEGACY_WINDOWS, row -> {
+            long userId = row.getLong("user_id");
+            LocalDateTime start = row.getTimestamp("start_time").toLocalDateTime();
+            LocalDateTime end = row.getTimestamp("end_time").toLocalDateTime();
+            imported.put(userId, imported.getOrDefault(userId, empty).withFree(start, end));
+        });
+        if (imported.isEmpty()) {
+            return;
+        }
+
+        List<Long> userIds = new ArrayList<>(imported.keySet());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<AvailabilityCalendar> calendars = new ArrayList<>(imported.size());
+                LocalDateTime now = LocalDateTime.now();
+                imported.forEach((userId, bitset) -> {
+                    AvailabilityCalendar calendar = new AvailabilityCalendar();
+                    calendar.setUser(userRepository.getReferenceById(userId));
+                    calendar.setOrigin(today);
+                    calendar.setSlots(bitset.toBytes());
+                    calendar.setUpdatedAt(now);
+                    calendars.add(calendar);
+                });
+                calendarRepository.saveAll(calendars);
+            });
+        } catch (DataAccessException e) {
+            // Another instance importing at the same time; its calendars win
+            logger.warn("Availability import failed, it is retried on the next start", e);
+            return;
+        }
+        availabilityService.invalidate(userIds);
+        logger.info("Imported availability windows of {} members into calendars", userIds.size());
+    }
+}
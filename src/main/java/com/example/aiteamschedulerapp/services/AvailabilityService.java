@@ -0,0 +1,242 @@
+package com.example.aiteamschedulerapp.services;
+
+import com.example.aiteamschedulerapp.entities.AvailabilityCalendar;
+import com.example.aiteamschedulerapp.entities.TeamAvailability;
+import com.example.aiteamschedulerapp.entities.TimeWindow;
+import com.example.aiteamschedulerapp.repositories.AvailabilityCalendarRepository;
+import com.example.aiteamschedulerapp.repositories.TeamRepository;
+import com.example.aiteamschedulerapp.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Member availability calendars: one bitset row per member, cached in memory and always handed out aligned
+ * to today's midnight so that bitsets of different members can be intersected word by word.
+ */
+@Service
+public class AvailabilityService {
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityService.class);
+
+    // Cached marker for members without a calendar, so they are not looked up again
+    private static final AvailabilityBitset UNRESTRICTED = AvailabilityBitset.empty(LocalDate.MIN, 0);
+
+    private final AvailabilityCalendarRepository calendarRepository;
+    private final TeamRepository teamRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LoadingCache<Long, AvailabilityBitset> calendars;
+    private final Timer teamQueryTimer;
+    private final int horizonDays;
+
+    public AvailabilityService(
+            AvailabilityCalendarRepository calendarRepository,
+            TeamRepository teamRepository,
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.availability.horizon-days:56}") int horizonDays,
+            @Value("${app.availability.cache.ttl-minutes:10}") long ttlMinutes,
+            @Value("${app.availability.cache.max-size:50000}") long maxSize
+    ) {
+        this.calendarRepository = calendarRepository;
+        this.teamRepository = teamRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.horizonDays = horizonDays;
+        this.calendars = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public AvailabilityBitset load(Long userId) {
+                        return loadAll(Set.of(userId)).get(userId);
+                    }
+
+                    @Override
+                    public Map<Long, AvailabilityBitset> loadAll(Set<? extends Long> userIds) {
+                        return AvailabilityService.this.loadAll(userIds);
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, calendars, "availability.calendars");
+        this.teamQueryTimer = Timer.builder("availability.team.query").register(meterRegistry);
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    /**
+     * Calendars of the given members aligned to today. Members without a calendar are left out; they are
+     * available at any time.
+     */
+    public Map<Long, AvailabilityBitset> getCalendars(Collection<Long> userIds) {
+        LocalDate today = LocalDate.now();
+        Map<Long, AvailabilityBitset> result = new HashMap<>();
+        calendars.getAll(userIds).forEach((userId, bitset) -> {
+            if (bitset != UNRESTRICTED) {
+                result.put(userId, current(userId, bitset, today));
+            }
+        });
+        return result;
+    }
+
+    public void addAvailability(Long teamId, Long userId, List<TimeWindow> windows) {
+        validate(windows);
+        update(teamId, userId, AvailabilityBitset::empty, bitset -> {
+            for (TimeWindow window : windows) {
+                bitset = bitset.withFree(window.getStartTime(), window.getEndTime());
+            }
+            return bitset;
+        });
+    }
+
+    public void removeAvailability(Long teamId, Long userId, List<TimeWindow> windows) {
+        validate(windows);
+        // A member without a calendar is free at any time, so only the removed windows become busy
+        update(teamId, userId, AvailabilityBitset::full, bitset -> {
+            for (TimeWindow window : windows) {
+                bitset = bitset.withBusy(window.getStartTime(), window.getEndTime());
+            }
+            return bitset;
+        });
+    }
+
+    /**
+     * Drops cached calendars of members whose rows were written outside this service.
+     */
+    public void invalidate(Collection<Long> userIds) {
+        calendars.invalidateAll(userIds);
+        userIds.forEach(userId -> eventPublisher.publishEvent(new AvailabilityChangedEvent(userId)));
+    }
+
+    /**
+     * Who on the team is free for all of [from, to), and when within it everyone is free.
+     */
+    public TeamAvailability getTeamAvailability(Long teamId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Window end must be after its start");
+        }
+        if (!teamRepository.existsById(teamId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Team not found");
+        }
+        List<Long> memberIds = teamRepository.findMemberIds(teamId);
+        Map<Long, AvailabilityBitset> restricted = getCalendars(memberIds);
+
+        long started = System.nanoTime();
+        List<Long> free = new ArrayList<>();
+        List<Long> busy = new ArrayList<>();
+        for (Long memberId : memberIds) {
+            AvailabilityBitset bitset = restricted.get(memberId);
+            if (bitset == null || bitset.isFree(from, to)) {
+                free.add(memberId);
+            } else {
+                busy.add(memberId);
+            }
+        }
+
+        List<TimeWindow> common;
+        if (restricted.isEmpty()) {
+            common = List.of(new TimeWindow(from, to));
+        } else {
+            AvailabilityBitset any = restricted.values().iterator().next();
+            common = any.windows(AvailabilityBitset.intersect(restricted.values(), from, to));
+        }
+        teamQueryTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return new TeamAvailability(free, busy, common);
+    }
+
+    /**
+     * @param initial Calendar to start from when the member has none yet, from the origin and horizon days
+     */
+    private void update(Long teamId, Long userId, BiFunction<LocalDate, Integer, AvailabilityBitset> initial,
+                        UnaryOperator<AvailabilityBitset> change) {
+        if (!teamRepository.isMember(teamId, userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User is not a member of this team");
+        }
+        LocalDate today = LocalDate.now();
+        AvailabilityBitset updated;
+        try {
+            updated = transactionTemplate.execute(status -> {
+                AvailabilityCalendar calendar = calendarRepository.findById(userId).orElseGet(() -> {
+                    AvailabilityCalendar created = new AvailabilityCalendar();
+                    created.setUser(userRepository.getReferenceById(userId));
+                    return created;
+                });
+                AvailabilityBitset bitset = calendar.getSlots() == null
+                        ? initial.apply(today, horizonDays)
+                        : AvailabilityBitset.fromBytes(calendar.getOrigin(), horizonDays, calendar.getSlots()).rebase(today);
+                bitset = change.apply(bitset);
+                calendar.setOrigin(today);
+                calendar.setSlots(bitset.toBytes());
+                calendar.setUpdatedAt(LocalDateTime.now());
+                calendarRepository.save(calendar);
+                return bitset;
+            });
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Availability was changed concurrently, please retry");
+        }
+        calendars.put(userId, updated);
+        eventPublisher.publishEvent(new AvailabilityChangedEvent(userId));
+        logger.debug("Availability of user {} updated", userId);
+    }
+
+    private Map<Long, AvailabilityBitset> loadAll(Collection<? extends Long> userIds) {
+        Map<Long, AvailabilityBitset> loaded = new HashMap<>();
+        for (AvailabilityCalendar calendar : calendarRepository.findAllById(List.copyOf(userIds))) {
+            loaded.put(calendar.getUserId(),
+                    AvailabilityBitset.fromBytes(calendar.getOrigin(), horizonDays, calendar.getSlots()));
+        }
+        userIds.forEach(userId -> loaded.putIfAbsent(userId, UNRESTRICTED));
+        return loaded;
+    }
+
+    private AvailabilityBitset current(Long userId, AvailabilityBitset bitset, LocalDate today) {
+        if (bitset.getOrigin().equals(today)) {
+            return bitset;
+        }
+        // First read after midnight: roll the cached copy forward; the row follows on its next update
+        AvailabilityBitset rebased = bitset.rebase(today);
+        calendars.asMap().replace(userId, bitset, rebased);
+        return rebased;
+    }
+
+    private static void validate(List<TimeWindow> windows) {
+        for (TimeWindow window : windows) {
+            if (window.getStartTime() == null || window.getEndTime() == null
+                    || !window.getEndTime().isAfter(window.getStartTime())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Availability end must be after its start");
+            }
+        }
+    }
+}
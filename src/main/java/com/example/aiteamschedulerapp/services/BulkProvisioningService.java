@@ -0,0 +1,312 @@
+package com.example.aiteamschedulerapp.services;
+
+import com.example.aiteamschedulerapp.entities.RegisterRequest;
+import com.example.aiteamschedulerapp.entities.User;
+import com.example.aiteamschedulerapp.repositories.UserBatchRepository;
+import com.example.aiteamschedulerapp.repositories.UserRepository;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Provisions users from an NDJSON stream of RegisterRequest records. Records are handled in chunks:
+ * Keycloak users are created on a bounded pool shared by all bulk requests, then the chunk's local rows
+ * are written in one JDBC batch. One result line is written per input record as each chunk completes.
+ */
+@Service
+public class BulkProvisioningService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkProvisioningService.class);
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final UserRepository userRepository;
+    private final UserBatchRepository userBatchRepository;
+    private final KeycloakService keycloakService;
+    private final UserSearchIndex userSearchIndex;
+    private final ExecutorService keycloakWorkers;
+    private final int chunkSize;
+
+    private final Counter createdCounter;
+    private final Counter skippedCounter;
+    private final Counter failedCounter;
+    private final Timer keycloakTimer;
+
+    public BulkProvisioningService(
+            ObjectMapper objectMapper,
+            Validator validator,
+            UserRepository userRepository,
+            UserBatchRepository userBatchRepository,
+            KeycloakService keycloakService,
+            UserSearchIndex userSearchIndex,
+            MeterRegistry meterRegistry,
+            @Value("${app.bulk-provisioning.concurrency:8}") int concurrency,
+            @Value("${app.bulk-provisioning.chunk-size:100}") int chunkSize
+    ) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.userRepository = userRepository;
+        this.userBatchRepository = userBatchRepository;
+        this.keycloakService = keycloakService;
+        this.userSearchIndex = userSearchIndex;
+        this.chunkSize = chunkSize;
+        this.keycloakWorkers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-provisioning");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.createdCounter = Counter.builder("users.bulk.records").tag("outcome", "created").register(meterRegistry);
+        this.skippedCounter = Counter.builder("users.bulk.records").tag("outcome", "skipped").register(meterRegistry);
+        this.failedCounter = Counter.builder("users.bulk.records").tag("outcome", "failed").register(meterRegistry);
+        this.keycloakTimer = Timer.builder("users.bulk.keycloak").register(meterRegistry);
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ProvisioningResult(long line, String email, String status, Long id, String error) {
+
+        static ProvisioningResult created(long line, String email, Long id) {
+            return new ProvisioningResult(line, email, "created", id, null);
+        }
+
+        static ProvisioningResult skipped(long line, String email, String reason) {
+            return new ProvisioningResult(line, email, "skipped", null, reason);
+        }
+
+        static ProvisioningResult failed(long line, String email, String error) {
+            return new ProvisioningResult(line, email, "failed", null, error);
+        }
+    }
+
+    private record Pending(long line, RegisterRequest request) {
+    }
+
+    public void provision(InputStream in, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        // Emails already seen in this stream
+        Set<String> seen = new HashSet<>();
+        List<ProvisioningResult> results = new ArrayList<>();
+        List<Pending> chunk = new ArrayList<>();
+        Map<String, Long> totals = new HashMap<>();
+
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            RegisterRequest request = parse(lineNumber, line, results, seen);
+            if (request != null) {
+                chunk.add(new Pending(lineNumber, request));
+            }
+            if (chunk.size() >= chunkSize) {
+                results.addAll(processChunk(chunk));
+                chunk.clear();
+                write(results, writer, totals);
+            }
+        }
+        results.addAll(processChunk(chunk));
+        write(results, writer, totals);
+
+        logger.info("Bulk provisioning finished in {} ms: {}", System.currentTimeMillis() - started, totals);
+    }
+
+    private RegisterRequest parse(long lineNumber, String line, List<ProvisioningResult> results, Set<String> seen) {
+        RegisterRequest request;
+        try {
+            request = objectMapper.readValue(line, RegisterRequest.class);
+        } catch (JsonProcessingException e) {
+            results.add(ProvisioningResult.failed(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage()));
+            return null;
+        }
+
+        Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String error = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            results.add(ProvisioningResult.failed(lineNumber, request.getEmail(), error));
+            return null;
+        }
+
+        // Normalised once here; dedupe, the existence query, the read-back and the insert all use this value
+        request.setEmail(request.getEmail().trim().toLowerCase(Locale.ROOT));
+        if (!seen.add(request.getEmail())) {
+            results.add(ProvisioningResult.skipped(lineNumber, request.getEmail(), "Duplicate email in request"));
+            return null;
+        }
+        return request;
+    }
+
+    private List<ProvisioningResult> processChunk(List<Pending> chunk) {
+        List<ProvisioningResult> results = new ArrayList<>();
+        if (chunk.isEmpty()) {
+            return results;
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            // An earlier chunk was interrupted; don't start new Keycloak calls that would only be discarded
+            chunk.forEach(pending -> results.add(ProvisioningResult.failed(pending.line(),
+                    pending.request().getEmail(), "Interrupted")));
+            return results;
+        }
+
+        // One query for the whole chunk instead of existsByEmail per record; users registered one by one keep
+        // their email as typed, so the comparison ignores case
+        Set<String> existing = userRepository.findExistingLowerCaseEmails(chunk.stream()
+                .map(pending -> pending.request().getEmail())
+                .collect(Collectors.toList()));
+
+        List<Pending> accepted = new ArrayList<>();
+        List<Future<String>> keycloakIds = new ArrayList<>();
+        AtomicBoolean abandoned = new AtomicBoolean();
+        for (Pending pending : chunk) {
+            if (existing.contains(pending.request().getEmail())) {
+                results.add(ProvisioningResult.skipped(pending.line(), pending.request().getEmail(), "Email already in use"));
+                continue;
+            }
+            accepted.add(pending);
+            keycloakIds.add(keycloakWorkers.submit(() -> {
+                if (abandoned.get()) {
+                    throw new CancellationException("Chunk abandoned");
+                }
+                return keycloakTimer.recordCallable(() -> keycloakService.provisionKeycloakUser(pending.request()));
+            }));
+        }
+
+        List<User> users = new ArrayList<>();
+        List<Pending> provisioned = new ArrayList<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            Pending pending = accepted.get(i);
+            try {
+                User user = new User();
+                user.setFirstName(pending.request().getFirstName());
+                user.setLastName(pending.request().getLastName());
+                user.setEmail(pending.request().getEmail());
+                user.setRole(pending.request().getRole());
+                user.setKeycloakId(keycloakIds.get(i).get());
+                users.add(user);
+                provisioned.add(pending);
+            } catch (ExecutionException e) {
+                logger.warn("Bulk provisioning of {} failed in Keycloak: {}", pending.request().getEmail(),
+                        e.getCause().getMessage());
+                results.add(ProvisioningResult.failed(pending.line(), pending.request().getEmail(),
+                        "Keycloak: " + e.getCause().getMessage()));
+            } catch (InterruptedException e) {
+                abandoned.set(true);
+                abandon(users, keycloakIds.subList(i, keycloakIds.size()));
+                provisioned.forEach(done -> results.add(ProvisioningResult.failed(done.line(),
+                        done.request().getEmail(), "Interrupted")));
+                accepted.subList(i, accepted.size()).forEach(rest -> results.add(ProvisioningResult.failed(
+                        rest.line(), rest.request().getEmail(), "Interrupted")));
+                Thread.currentThread().interrupt();
+                return results;
+            }
+        }
+
+        try {
+            userBatchRepository.insertUsers(users);
+        } catch (RuntimeException e) {
+            logger.error("Bulk insert of {} users failed, removing them from Keycloak", users.size(), e);
+            users.forEach(user -> keycloakService.discardKeycloakUser(user.getKeycloakId()));
+            provisioned.forEach(pending -> results.add(ProvisioningResult.failed(pending.line(),
+                    pending.request().getEmail(), "Database insert failed")));
+            return results;
+        }
+
+        // Ids are generated by the database, so read them back in one query
+        Map<String, User> saved = userRepository.findByEmailIn(users.stream().map(User::getEmail).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(User::getEmail, user -> user, (first, second) -> first));
+        for (Pending pending : provisioned) {
+            User user = saved.get(pending.request().getEmail());
+            if (user != null) {
+                userSearchIndex.put(user);
+            }
+            results.add(ProvisioningResult.created(pending.line(), pending.request().getEmail(),
+                    user == null ? null : user.getId()));
+        }
+        return results;
+    }
+
+    /**
+     * Cleans up after an interrupted chunk: none of its users get a local row, so every Keycloak user it
+     * created is removed. Queued calls skip themselves once the chunk is marked abandoned; running ones are
+     * waited for, as their result is the only way to find the user they create.
+     */
+    private void abandon(List<User> created, List<Future<String>> remaining) {
+        created.forEach(user -> keycloakService.discardKeycloakUser(user.getKeycloakId()));
+        for (Future<String> future : remaining) {
+            while (true) {
+                try {
+                    keycloakService.discardKeycloakUser(future.get());
+                    break;
+                } catch (ExecutionException e) {
+                    // Skipped or failed, so there is nothing to remove
+                    break;
+                } catch (InterruptedException e) {
+                    // Keep waiting; the caller restores the interrupt flag
+                }
+            }
+        }
+    }
+
+    private void write(List<ProvisioningResult> results, Writer writer, Map<String, Long> totals) throws IOException {
+        results.sort((a, b) -> Long.compare(a.line(), b.line()));
+        for (ProvisioningResult result : results) {
+            switch (result.status()) {
+                case "created" -> createdCounter.increment();
+                case "skipped" -> skippedCounter.increment();
+                default -> failedCounter.increment();
+            }
+            totals.merge(result.status(), 1L, Long::sum);
+            writer.write(objectMapper.writeValueAsString(result));
+            writer.write('\n');
+        }
+        results.clear();
+        // Let the client see progress after every chunk
+        writer.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        keycloakWorkers.shutdown();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.aiteamschedulerapp.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Shared CSV handling for the file based directory sources. Lines are parsed straight from bytes:
+ * only the name and email columns are decoded, and no per-line String or split() array is created;
+ * decoded columns go into one field array per load, see {@link #newFields()}.
+ * Quoted fields ("a, b" and "" escapes) are supported; quoted line breaks are not.
+ */
+public abstract class CsvDirectorySource implements UserDirectorySource {
+
+    private final int[] nameColumns;
+    private final int emailColumn;
+    private final int lastColumn;
+
+    protected CsvDirectorySource(int[] nameColumns, int emailColumn) {
+        this.nameColumns = nameColumns.clone();
+        this.emailColumn = emailColumn;
+        this.lastColumn = Math.max(emailColumn, Arrays.stream(nameColumns).max().orElse(0));
+    }
+
+    /**
+     * Scratch array for {@link #parseLine}, reused for every line of one load.
+     */
+    protected final String[] newFields() {
+        return new String[lastColumn + 1];
+    }
+
+    protected final void parseLine(byte[] bytes, int offset, int length, String[] fields,
+                                   Consumer<UserDirectoryIndex.Entry> sink) {
+        int end = offset + length;
+        if (end > offset && bytes[end - 1] == '\r') {
+            end--;
+        }
+
+        int position = offset;
+        for (int column = 0; column <= lastColumn; column++) {
+            boolean wanted = column == emailColumn || contains(nameColumns, column);
+            int next;
+            if (position < end && bytes[position] == '"') {
+                int start = position + 1;
+                int i = start;
+                boolean escaped = false;
+                while (i < end) {
+                    if (bytes[i] == '"') {
+                        if (i + 1 < end && bytes[i + 1] == '"') {
+                            escaped = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                if (wanted) {
+                    String value = new String(bytes, start, i - start, StandardCharsets.UTF_8);
+                    fields[column] = escaped ? value.replace("\"\"", "\"") : value;
+                }
+                next = i + 1;
+                while (next < end && bytes[next] != ',') {
+                    next++;
+                }
+            } else {
+                next = position;
+                while (next < end && bytes[next] != ',') {
+                    next++;
+                }
+                if (wanted) {
+                    fields[column] = new String(bytes, position, next - position, StandardCharsets.UTF_8);
+                }
+            }
+            if (next >= end && column < lastColumn) {
+                // Short line, e.g. blank or truncated
+                return;
+            }
+            position = next + 1;
+        }
+
+        String email = fields[emailColumn].trim();
+        // Skips header rows and malformed lines alike
+        if (email.indexOf('@') < 1) {
+            return;
+        }
+        sink.accept(new UserDirectoryIndex.Entry(name(fields), email));
+    }
+
+    private String name(String[] fields) {
+        if (nameColumns.length == 1) {
+            return fields[nameColumns[0]].trim();
+        }
+        StringBuilder name = new StringBuilder();
+        for (int column : nameColumns) {
+            String part = fields[column].trim();
+            if (!part.isEmpty()) {
+                if (name.length() > 0) {
+                    name.append(' ');
+                }
+                name.append(part);
+            }
+        }
+        return name.toString();
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int candidate : values) {
+            if (candidate == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.aiteamschedulerapp.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Streams users and team rosters straight from a forward-only JDBC cursor to the response body.
+ * Rows are written as they are read, so memory use does not depend on the table sizes.
+ */
+@Service
+public class ExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String USERS_SQL =
+            "SELECT id, first_name, last_name, email, role FROM users ORDER BY id";
+
+    private static final String TEAMS_SQL =
+            "SELECT t.id AS team_id, t.name AS team_name, m.id AS manager_id, m.email AS manager_email " +
+            "FROM teams t LEFT JOIN users m ON m.id = t.manager_id ORDER BY t.id";
+
+    private static final String TEAM_MEMBERS_SQL =
+            "SELECT t.id AS team_id, t.name AS team_name, u.id AS user_id, u.first_name, u.last_name, u.email, u.role " +
+            "FROM team_members tm JOIN teams t ON t.id = tm.team_id JOIN users u ON u.id = tm.user_id " +
+            "ORDER BY t.id, u.id";
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+
+    public ExportService(DataSource dataSource, ObjectMapper objectMapper) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+    }
+
+    public void exportUsers(Format format, OutputStream out) {
+        export("users", USERS_SQL, format, out);
+    }
+
+    public void exportTeams(Format format, OutputStream out) {
+        export("teams", TEAMS_SQL, format, out);
+    }
+
+    public void exportTeamMembers(Format format, OutputStream out) {
+        export("team members", TEAM_MEMBERS_SQL, format, out);
+    }
+
+    private void export(String name, String sql, Format format, OutputStream out) {
+        long rows = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            // PostgreSQL only streams with a server-side cursor inside a transaction
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    rows = format == Format.CSV ? writeCsv(resultSet, out) : writeNdjson(resultSet, out);
+                }
+            } finally {
+                connection.rollback();
+                connection.setReadOnly(false);
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Export of " + name + " failed", e);
+        } catch (IOException e) {
+            // Usually the client went away mid-download
+            throw new UncheckedIOException("Export of " + name + " aborted", e);
+        }
+        logger.info("Exported {} {} rows as {}", rows, name, format);
+    }
+
+    private long writeNdjson(ResultSet resultSet, OutputStream out) throws SQLException, IOException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columns = metaData.getColumnCount();
+        String[] labels = labels(metaData);
+
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (resultSet.next()) {
+                generator.writeStartObject();
+                for (int i = 1; i <= columns; i++) {
+                    Object value = resultSet.getObject(i);
+                    generator.writeFieldName(labels[i - 1]);
+                    if (value == null) {
+                        generator.writeNull();
+                    } else if (value instanceof Number number) {
+                        generator.writeNumber(number.longValue());
+                    } else {
+                        generator.writeString(value.toString());
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                if (++rows % fetchSize == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private long writeCsv(ResultSet resultSet, OutputStream out) throws SQLException, IOException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columns = metaData.getColumnCount();
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", labels(metaData)));
+        writer.write("\r\n");
+
+        long rows = 0;
+        while (resultSet.next()) {
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                String value = resultSet.getString(i);
+                if (value != null) {
+                    writer.write(csvEscape(value));
+                }
+            }
+            writer.write("\r\n");
+            if (++rows % fetchSize == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static String[] labels(ResultSetMetaData metaData) throws SQLException {
+        String[] labels = new String[metaData.getColumnCount()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+        }
+        return labels;
+    }
+
+    private static String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
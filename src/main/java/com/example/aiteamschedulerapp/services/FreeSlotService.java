@@ -0,0 +1,221 @@
+package com.example.aiteamschedulerapp.services;
+
+import com.example.aiteamschedulerapp.entities.FreeSlot;
+import com.example.aiteamschedulerapp.entities.User;
+import com.example.aiteamschedulerapp.repositories.TeamRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Meeting slots that suit as many members as possible across several teams. Every member's calendar is
+ * reduced to the slots where a meeting of the requested length can start, and those start bits are counted
+ * per slot, one team per task. Results are cached under the teams' roster versions, which move on
+ * membership and availability changes.
+ */
+@Service
+public class FreeSlotService {
+    private static final Logger logger = LoggerFactory.getLogger(FreeSlotService.class);
+
+    private static final int MAX_TEAMS = 20;
+    private static final int MAX_LIMIT = 50;
+
+    private final TeamRepository teamRepository;
+    private final AvailabilityService availabilityService;
+    private final Cache<FreeSlotQuery, List<FreeSlot>> results;
+    private final Map<Long, Long> rosterVersions = new ConcurrentHashMap<>();
+    private final Timer searchTimer;
+
+    public FreeSlotService(
+            TeamRepository teamRepository,
+            AvailabilityService availabilityService,
+            MeterRegistry meterRegistry,
+            @Value("${app.free-slots.cache.ttl-minutes:15}") long ttlMinutes,
+            @Value("${app.free-slots.cache.max-size:1000}") long maxSize
+    ) {
+        this.teamRepository = teamRepository;
+        this.availabilityService = availabilityService;
+        this.results = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "free-slots");
+        this.searchTimer = Timer.builder("free-slots.search").register(meterRegistry);
+    }
+
+    /**
+     * The versions are read before the rosters, so a result computed from data that changed meanwhile
+     * ends up under a key nobody asks for again.
+     * @param start First possible start, aligned to a slot; moves every 15 minutes
+     */
+    private record FreeSlotQuery(List<Long> teamIds, List<Long> versions, int durationSlots, int horizonDays,
+                                 int limit, LocalDateTime start) {
+    }
+
+    /**
+     * @param teamIds Teams the manager owns
+     * @param duration Meeting length, rounded up to whole 15-minute slots
+     * @param horizonDays How far ahead to look, from now
+     * @param limit Number of slots to return, best attended first; returned slots do not overlap
+     */
+    public List<FreeSlot> findFreeSlots(User manager, Collection<Long> teamIds, Duration duration, int horizonDays,
+                                        int limit) {
+        List<Long> sortedTeamIds = teamIds.stream().distinct().sorted().collect(Collectors.toList());
+        if (sortedTeamIds.isEmpty() || sortedTeamIds.size() > MAX_TEAMS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Between 1 and " + MAX_TEAMS + " teams can be searched");
+        }
+        long durationSlots = (duration.toMinutes() + AvailabilityBitset.SLOT_MINUTES - 1) / AvailabilityBitset.SLOT_MINUTES;
+        if (duration.isNegative() || durationSlots < 1 || durationSlots > AvailabilityBitset.SLOTS_PER_DAY) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Duration must be between 1 minute and 24 hours");
+        }
+        if (horizonDays < 1 || horizonDays > availabilityService.getHorizonDays()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Horizon must be between 1 and " + availabilityService.getHorizonDays() + " days");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (!new HashSet<>(teamRepository.findIdsByManagerId(manager.getId())).containsAll(sortedTeamIds)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only your own teams can be searched");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        AvailabilityBitset clock = AvailabilityBitset.empty(now.toLocalDate(), availabilityService.getHorizonDays());
+        LocalDateTime start = clock.timeOf((int) clock.slotCeil(now));
+        List<Long> versions = sortedTeamIds.stream()
+                .map(teamId -> rosterVersions.getOrDefault(teamId, 0L))
+                .collect(Collectors.toList());
+        FreeSlotQuery query = new FreeSlotQuery(sortedTeamIds, versions, (int) durationSlots, horizonDays, limit, start);
+        return results.get(query, this::search);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(TeamMembershipChangedEvent event) {
+        invalidate(Set.of(event.teamId()));
+    }
+
+    @EventListener
+    public void onAvailabilityChanged(AvailabilityChangedEvent event) {
+        invalidate(new HashSet<>(teamRepository.findTeamIdsByMemberId(event.userId())));
+    }
+
+    private void invalidate(Set<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return;
+        }
+        teamIds.forEach(teamId -> rosterVersions.merge(teamId, 1L, Long::sum));
+        results.asMap().keySet().removeIf(query -> query.teamIds().stream().anyMatch(teamIds::contains));
+    }
+
+    private List<FreeSlot> search(FreeSlotQuery query) {
+        long started = System.nanoTime();
+
+        // A member of several teams is counted once, with the first team that lists them
+        Map<Long, List<Long>> rosters = new LinkedHashMap<>();
+        query.teamIds().forEach(teamId -> rosters.put(teamId, new ArrayList<>()));
+        Set<Long> members = new HashSet<>();
+        teamRepository.findMemberRows(query.teamIds()).stream()
+                .sorted(Comparator.comparing(TeamRepository.MemberRow::getTeamId)
+                        .thenComparing(TeamRepository.MemberRow::getUserId))
+                .filter(row -> members.add(row.getUserId()))
+                .forEach(row -> rosters.get(row.getTeamId()).add(row.getUserId()));
+        if (members.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, AvailabilityBitset> calendars = availabilityService.getCalendars(members);
+        // Members without a calendar can attend any slot
+        int alwaysFree = members.size() - calendars.size();
+        AvailabilityBitset clock = calendars.isEmpty()
+                ? AvailabilityBitset.empty(LocalDate.now(), availabilityService.getHorizonDays())
+                : calendars.values().iterator().next();
+        int slotCount = clock.getSlotCount();
+        int first = (int) Math.max(0, clock.slotCeil(query.start()));
+        int end = Math.min(slotCount, first + query.horizonDays() * AvailabilityBitset.SLOTS_PER_DAY);
+        int lastStart = end - query.durationSlots();
+        if (lastStart < first) {
+            return List.of();
+        }
+
+        // Per-slot attendance, counted one team per task
+        int[] attendance = rosters.values().parallelStream()
+                .map(roster -> {
+                    int[] counts = new int[slotCount];
+                    for (Long memberId : roster) {
+                        AvailabilityBitset calendar = calendars.get(memberId);
+                        if (calendar != null) {
+                            calendar.countRunStarts(query.durationSlots(), first, lastStart + 1, counts);
+                        }
+                    }
+                    return counts;
+                })
+                .reduce((a, b) -> {
+                    for (int i = 0; i < a.length; i++) {
+                        a[i] += b[i];
+                    }
+                    return a;
+                })
+                .orElseGet(() -> new int[slotCount]);
+
+        // Best attended first, earlier first on ties; skip starts overlapping a slot already taken
+        List<Integer> candidates = new ArrayList<>();
+        for (int slot = first; slot <= lastStart; slot++) {
+            if (attendance[slot] + alwaysFree > 0) {
+                candidates.add(slot);
+            }
+        }
+        candidates.sort(Comparator.comparingInt((Integer slot) -> -attendance[slot]).thenComparingInt(slot -> slot));
+        List<Integer> picked = new ArrayList<>();
+        for (int slot : candidates) {
+            if (picked.size() == query.limit()) {
+                break;
+            }
+            if (picked.stream().noneMatch(other -> Math.abs(other - slot) < query.durationSlots())) {
+                picked.add(slot);
+            }
+        }
+
+        List<FreeSlot> slots = new ArrayList<>(picked.size());
+        for (int slot : picked) {
+            LocalDateTime startTime = clock.timeOf(slot);
+            LocalDateTime endTime = clock.timeOf(slot + query.durationSlots());
+            List<Long> absent = calendars.entrySet().stream()
+                    .filter(entry -> !entry.getValue().isFree(startTime, endTime))
+                    .map(Map.Entry::getKey)
+                    .sorted()
+                    .collect(Collectors.toList());
+            slots.add(new FreeSlot(startTime, endTime, attendance[slot] + alwaysFree, members.size(), absent));
+        }
+
+        long elapsed = System.nanoTime() - started;
+        searchTimer.record(Duration.ofNanos(elapsed));
+        logger.debug("Free-slot search over {} teams ({} members) took {} us", query.teamIds().size(),
+                members.size(), elapsed / 1000);
+        return slots;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.aiteamschedulerapp.services;
+
+import com.example.aiteamschedulerapp.entities.InvitationDetails;
+import com.example.aiteamschedulerapp.repositories.TeamInvitationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Serves the unauthenticated invite-link endpoints from a short-TTL cache keyed by token.
+ */
+@Service
+public class InvitationDetailsService {
+
+    private final TeamInvitationRepository invitationRepository;
+
+    // Unknown tokens are cached as empty too, so repeated bogus links don't reach Postgres either
+    private final Cache<String, Optional<InvitationDetails>> detailsByToken;
+
+    public InvitationDetailsService(
+            TeamInvitationRepository invitationRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.invitations.details-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${app.invitations.details-cache.max-size:10000}") long maxSize
+    ) {
+        this.invitationRepository = invitationRepository;
+        this.detailsByToken = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, detailsByToken, "invitations.details");
+    }
+
+    /**
+     * Details of an invitation that is still usable (not expired, not accepted).
+     */
+    public InvitationDetails validate(String token) {
+        return lookup(token)
+                .filter(details -> !details.isAccepted())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid or expired invitation"));
+    }
+
+    /**
+     * Details of an invitation that has not expired.
+     */
+    public InvitationDetails getDetails(String token) {
+        return lookup(token)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid or expired invitation"));
+    }
+
+    public void evict(String token) {
+        if (token == null) {
+            return;
+        }
+        // Inside a transaction, evicting before commit would let a concurrent read cache the old row again
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    detailsByToken.invalidate(token);
+                }
+            });
+        } else {
+            detailsByToken.invalidate(token);
+        }
+    }
+
+    private Optional<InvitationDetails> lookup(String token) {
+        // Expiry is re-checked on every read because a cached entry may outlive the invitation
+        return detailsByToken.get(token, key -> invitationRepository.findDetailsByToken(key, LocalDateTime.now()))
+                .filter(details -> details.getExpiresAt().isAfter(LocalDateTime.now()));
+    }
+}
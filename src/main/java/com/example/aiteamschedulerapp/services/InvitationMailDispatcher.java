@@ -0,0 +1,220 @@
+package com.example.aiteamschedulerapp.services;
+
+import com.example.aiteamschedulerapp.entities.InvitationMailStatus;
+import com.example.aiteamschedulerapp.entities.TeamInvitation;
+import com.example.aiteamschedulerapp.repositories.TeamInvitationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Drains pending invitation e-mails from team_invitations (the outbox) in the background.
+ * Batches are claimed before sending, so several instances can drain the outbox without sending twice.
+ * Each worker sends its share of a batch over a single SMTP connection; failures are retried with backoff.
+ */
+@Component
+public class InvitationMailDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvitationMailDispatcher.class);
+
+    private final TeamInvitationRepository invitationRepository;
+    private final JavaMailSender mailSender;
+    private final ExecutorService senders;
+    private final int concurrency;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration claimLease;
+
+    private final Counter sentCounter;
+    private final Counter retryCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+
+    @Value("${app.frontend.url}")
+    private String frontendUrl;
+
+    public InvitationMailDispatcher(
+            TeamInvitationRepository invitationRepository,
+            JavaMailSender mailSender,
+            MeterRegistry meterRegistry,
+            @Value("${app.invitations.mail.concurrency:2}") int concurrency,
+            @Value("${app.invitations.mail.batch-size:25}") int batchSize,
+            @Value("${app.invitations.mail.max-attempts:5}") int maxAttempts,
+            @Value("${app.invitations.mail.initial-backoff-ms:30000}") long initialBackoffMs,
+            @Value("${app.invitations.mail.max-backoff-ms:1800000}") long maxBackoffMs,
+            @Value("${app.invitations.mail.claim-lease-ms:300000}") long claimLeaseMs
+    ) {
+        this.invitationRepository = invitationRepository;
+        this.mailSender = mailSender;
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.claimLease = Duration.ofMillis(claimLeaseMs);
+        this.senders = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "invitation-mail-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.sentCounter = Counter.builder("invitations.mail.sent").register(meterRegistry);
+        this.retryCounter = Counter.builder("invitations.mail.retried").register(meterRegistry);
+        this.failedCounter = Counter.builder("invitations.mail.failed").register(meterRegistry);
+        this.batchTimer = Timer.builder("invitations.mail.batch.duration").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.invitations.mail.poll-interval-ms:5000}")
+    public void dispatchPending() {
+        int limit = batchSize * concurrency;
+        while (true) {
+            String claim = UUID.randomUUID().toString();
+            LocalDateTime now = LocalDateTime.now();
+            int claimed = invitationRepository.claimMailDue(claim, now, now.plus(claimLease), limit);
+            if (claimed == 0) {
+                break;
+            }
+            List<TeamInvitation> invitations =
+                    invitationRepository.findByClaimedByAndMailStatus(claim, InvitationMailStatus.PENDING);
+            batchTimer.record(() -> dispatch(claim, invitations));
+            if (claimed < limit) {
+                break;
+            }
+        }
+    }
+
+    private void dispatch(String claim, List<TeamInvitation> invitations) {
+        List<List<TeamInvitation>> chunks = new ArrayList<>();
+        List<Future<Map<TeamInvitation, Exception>>> results = new ArrayList<>();
+        for (int from = 0; from < invitations.size(); from += batchSize) {
+            List<TeamInvitation> chunk = invitations.subList(from, Math.min(from + batchSize, invitations.size()));
+            chunks.add(chunk);
+            results.add(senders.submit(() -> send(chunk)));
+        }
+
+        Map<TeamInvitation, Exception> failures = new IdentityHashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                failures.putAll(results.get(i).get());
+            } catch (ExecutionException e) {
+                logger.error("Invitation mail worker failed", e.getCause());
+                Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                chunks.get(i).forEach(invitation -> failures.put(invitation, cause));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        // The loaded rows may be stale by now (accepted, processed), so only the mail columns are updated
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> sentIds = new ArrayList<>();
+        for (TeamInvitation invitation : invitations) {
+            Exception failure = failures.get(invitation);
+            if (failure == null) {
+                sentIds.add(invitation.getId());
+            } else {
+                recordFailure(claim, invitation, failure, now);
+            }
+        }
+        if (!sentIds.isEmpty()) {
+            sentCounter.increment(invitationRepository.markMailSent(sentIds, claim, now));
+        }
+    }
+
+    /**
+     * Sends one chunk over a single SMTP session and returns the invitations that could not be delivered.
+     */
+    private Map<TeamInvitation, Exception> send(List<TeamInvitation> chunk) {
+        Map<SimpleMailMessage, TeamInvitation> byMessage = new IdentityHashMap<>();
+        for (TeamInvitation invitation : chunk) {
+            byMessage.put(buildMessage(invitation), invitation);
+        }
+
+        Map<TeamInvitation, Exception> failures = new IdentityHashMap<>();
+        try {
+            mailSender.send(byMessage.keySet().toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                chunk.forEach(invitation -> failures.put(invitation, e));
+            } else {
+                e.getFailedMessages().forEach((message, cause) -> {
+                    TeamInvitation invitation = byMessage.get(message);
+                    if (invitation != null) {
+                        failures.put(invitation, cause);
+                    }
+                });
+            }
+        } catch (MailException e) {
+            chunk.forEach(invitation -> failures.put(invitation, e));
+        }
+        return failures;
+    }
+
+    private SimpleMailMessage buildMessage(TeamInvitation invitation) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(invitation.getEmail());
+        message.setSubject("Team Invitation for " + invitation.getTeam().getName());
+
+        String registrationLink = frontendUrl + "/register?token=" + invitation.getInvitationToken();
+
+        message.setText("You have been invited to join the team: " + invitation.getTeam().getName() +
+                "\n\nPlease register using this link: " + registrationLink +
+                "\n\nThis link will expire in 7 days.");
+        return message;
+    }
+
+    private void recordFailure(String claim, TeamInvitation invitation, Exception failure, LocalDateTime now) {
+        int attempts = invitation.getMailAttempts() + 1;
+        String message = String.valueOf(failure.getMessage());
+        String error = message.length() > 500 ? message.substring(0, 500) : message;
+
+        if (attempts >= maxAttempts) {
+            invitationRepository.recordMailFailure(invitation.getId(), claim, InvitationMailStatus.FAILED, attempts,
+                    invitation.getNextMailAttemptAt(), error);
+            failedCounter.increment();
+            logger.error("Giving up on invitation email to {} after {} attempts", invitation.getEmail(), attempts);
+            return;
+        }
+
+        // Exponential backoff: initial, 2x, 4x ... capped at maxBackoff
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (backoff.compareTo(maxBackoff) > 0) {
+            backoff = maxBackoff;
+        }
+        invitationRepository.recordMailFailure(invitation.getId(), claim, InvitationMailStatus.PENDING, attempts,
+                now.plus(backoff), error);
+        retryCounter.increment();
+        logger.warn("Invitation email to {} failed (attempt {}), retrying in {}s",
+                invitation.getEmail(), attempts, backoff.toSeconds());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+    }
+}
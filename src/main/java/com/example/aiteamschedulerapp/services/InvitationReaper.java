@@ -0,0 +1,61 @@
+package com.example.aiteamschedulerapp.services;
+
+import com.example.aiteamschedulerapp.repositories.TeamInvitationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Periodically removes invitations that can no longer be used: expired ones that were never accepted,
+ * and accepted ones whose membership was created longer ago than the retention period.
+ * Deletes run in bounded batches, each in its own short transaction.
+ */
+@Component
+public class InvitationReaper {
+    private static final Logger logger = LoggerFactory.getLogger(InvitationReaper.class);
+
+    private final TeamInvitationRepository invitationRepository;
+    private final int batchSize;
+    private final long expiredGraceHours;
+    private final long acceptedRetentionDays;
+    private final Counter reapedCounter;
+
+    public InvitationReaper(
+            TeamInvitationRepository invitationRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.invitations.reaper.batch-size:1000}") int batchSize,
+            @Value("${app.invitations.reaper.expired-grace-hours:24}") long expiredGraceHours,
+            @Value("${app.invitations.reaper.accepted-retention-days:30}") long acceptedRetentionDays
+    ) {
+        this.invitationRepository = invitationRepository;
+        this.batchSize = batchSize;
+        this.expiredGraceHours = expiredGraceHours;
+        this.acceptedRetentionDays = acceptedRetentionDays;
+        this.reapedCounter = Counter.builder("invitations.reaped").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.invitations.reaper.cron:0 15 * * * *}")
+    public void reap() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiredBefore = now.minusHours(expiredGraceHours);
+        LocalDateTime processedBefore = now.minusDays(acceptedRetentionDays);
+
+        long total = 0;
+        int deleted;
+        do {
+            deleted = invitationRepository.deleteReapable(expiredBefore, processedBefore, batchSize);
+            total += deleted;
+            reapedCounter.increment(deleted);
+        } while (deleted == batchSize);
+
+        if (total > 0) {
+            logger.info("Reaped {} expired or processed invitations", total);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.aiteamschedulerapp.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves team_invitations_seq past the ids already in team_invitations. Invitations used to get IDENTITY ids,
+ * and the pooled sequence that replaced them starts at 1, so without this the first inserts on an existing
+ * database would collide with old rows. The sequence is only ever moved forward, so running this on every
+ * start is harmless.
+ */
+@Component
+public class InvitationSequenceInitializer implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(InvitationSequenceInitializer.class);
+
+    // With the pooled optimizer, the next nextval hands out the block (value + 1 .. value + increment)
+    private static final String ALIGN_SEQUENCE =
+            "SELECT setval('team_invitations_seq', GREATEST(" +
+            "(SELECT COALESCE(MAX(id), 0) FROM team_invitations), " +
+            "(SELECT last_value FROM team_invitations_seq), 1))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InvitationSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            Long value = jdbcTemplate.queryForObject(ALIGN_SEQUENCE, Long.class);
+            logger.info("team_invitations_seq aligned at {}", value);
+        } catch (DataAccessException e) {
+            // Not fatal on a fresh schema; inserts fail loudly if old ids really are in the way
+            logger.warn("Could not align team_invitations_seq with existing invitation ids", e);
+        }
+    }
+}
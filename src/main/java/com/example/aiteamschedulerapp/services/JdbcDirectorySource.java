@@ -0,0 +1,58 @@
+package com.example.aiteamschedulerapp.services;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Reads the directory from a database table or view. The query must return the name in the first
+ * column and the email in the second; rows are streamed with a forward-only cursor.
+ */
+public class JdbcDirectorySource implements UserDirectorySource {
+
+    private final DataSource dataSource;
+    private final String query;
+    private final int fetchSize;
+
+    public JdbcDirectorySource(DataSource dataSource, String query, int fetchSize) {
+        this.dataSource = dataSource;
+        this.query = query;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public void load(Consumer<UserDirectoryIndex.Entry> sink) throws IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            // PostgreSQL only streams with a server-side cursor inside a transaction
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(query,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        String name = resultSet.getString(1);
+                        String email = resultSet.getString(2);
+                        if (email != null && email.indexOf('@') > 0) {
+                            sink.accept(new UserDirectoryIndex.Entry(name == null ? "" : name.trim(), email.trim()));
+                        }
+                    }
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Reading user directory failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String description() {
+        return "JDBC query " + query;
+    }
+}
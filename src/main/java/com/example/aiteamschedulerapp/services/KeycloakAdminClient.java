@@ -0,0 +1,177 @@
+package com.example.aiteamschedulerapp.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.ws.rs.client.ClientBuilder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient43Engine;
+import org.keycloak.admin.client.JacksonProvider;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.KeycloakBuilder;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.token.TokenManager;
+import org.keycloak.representations.AccessTokenResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared Keycloak admin client backed by a bounded HTTP connection pool.
+ * The master-realm token is reused across calls and refreshed shortly before it expires.
+ */
+@Component
+public class KeycloakAdminClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeycloakAdminClient.class);
+
+    private final Keycloak keycloak;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final long refreshSkewMillis;
+
+    private final Counter tokenRefreshes;
+    private final Counter tokenRefreshFailures;
+    private final Timer tokenRefreshTimer;
+
+    private volatile long tokenExpiresAt;
+
+    public KeycloakAdminClient(
+            @Value("${keycloak.auth-server-url}") String authServerUrl,
+            @Value("${keycloak.admin.realm:master}") String adminRealm,
+            @Value("${keycloak.admin.client-id:admin-cli}") String adminClientId,
+            @Value("${keycloak.admin.username:admin}") String adminUsername,
+            @Value("${keycloak.admin.password:admin}") String adminPassword,
+            @Value("${keycloak.admin.pool.max-total:20}") int maxTotal,
+            @Value("${keycloak.admin.pool.max-per-route:20}") int maxPerRoute,
+            @Value("${keycloak.admin.pool.connection-ttl-ms:60000}") long connectionTtlMs,
+            @Value("${keycloak.admin.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${keycloak.admin.read-timeout-ms:5000}") int readTimeoutMs,
+            @Value("${keycloak.admin.token-refresh-skew-seconds:30}") long refreshSkewSeconds,
+            MeterRegistry meterRegistry
+    ) {
+        this.refreshSkewMillis = TimeUnit.SECONDS.toMillis(refreshSkewSeconds);
+
+        this.connectionManager = new PoolingHttpClientConnectionManager(connectionTtlMs, TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setConnectionRequestTimeout(connectTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .build();
+
+        CloseableHttpClient httpClient = HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+
+        ResteasyClient resteasyClient = ((ResteasyClientBuilder) ClientBuilder.newBuilder())
+                .httpEngine(new ApacheHttpClient43Engine(httpClient, true))
+                .register(new JacksonProvider(), 100)
+                .build();
+
+        this.keycloak = KeycloakBuilder.builder()
+                .serverUrl(authServerUrl)
+                .realm(adminRealm)
+                .clientId(adminClientId)
+                .username(adminUsername)
+                .password(adminPassword)
+                .resteasyClient(resteasyClient)
+                .build();
+        // Let the lazy path inside TokenManager refresh early as well
+        keycloak.tokenManager().setMinTokenValidity(refreshSkewSeconds);
+
+        this.tokenRefreshes = Counter.builder("keycloak.admin.token.refreshes")
+                .description("Admin token grants and refreshes")
+                .register(meterRegistry);
+        this.tokenRefreshFailures = Counter.builder("keycloak.admin.token.refresh.failures")
+                .description("Failed admin token grants and refreshes")
+                .register(meterRegistry);
+        this.tokenRefreshTimer = Timer.builder("keycloak.admin.token.refresh.duration")
+                .description("Time spent obtaining admin tokens")
+                .register(meterRegistry);
+
+        Gauge.builder("keycloak.admin.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                .description("Connections currently leased to the admin client")
+                .register(meterRegistry);
+        Gauge.builder("keycloak.admin.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                .description("Idle connections kept alive in the admin client pool")
+                .register(meterRegistry);
+        Gauge.builder("keycloak.admin.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                .description("Requests waiting for a pooled connection")
+                .register(meterRegistry);
+        Gauge.builder("keycloak.admin.pool.max", connectionManager, cm -> cm.getTotalStats().getMax())
+                .description("Maximum size of the admin client pool")
+                .register(meterRegistry);
+
+        logger.info("Keycloak admin client initialised (pool max {}, per route {})", maxTotal, maxPerRoute);
+    }
+
+    /**
+     * Returns the given realm through the shared admin client, obtaining a token on first use.
+     * @param realmName The realm to manage
+     * @return The realm resource
+     */
+    public RealmResource realm(String realmName) {
+        if (tokenExpiresAt == 0L) {
+            obtainToken();
+        }
+        return keycloak.realm(realmName);
+    }
+
+    /**
+     * Refreshes the admin token ahead of its expiry so request threads never wait on a token round-trip.
+     */
+    @Scheduled(fixedDelayString = "${keycloak.admin.token-check-interval-ms:10000}")
+    public void refreshTokenIfNeeded() {
+        long expiresAt = tokenExpiresAt;
+        if (expiresAt == 0L || System.currentTimeMillis() < expiresAt - refreshSkewMillis) {
+            return;
+        }
+        try {
+            obtainToken();
+        } catch (RuntimeException e) {
+            logger.warn("Proactive admin token refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void obtainToken() {
+        long expiresAt = tokenExpiresAt;
+        if (expiresAt != 0L && System.currentTimeMillis() < expiresAt - refreshSkewMillis) {
+            return;
+        }
+
+        TokenManager tokenManager = keycloak.tokenManager();
+        Timer.Sample sample = Timer.start();
+        try {
+            AccessTokenResponse token = expiresAt == 0L ? tokenManager.grantToken() : tokenManager.refreshToken();
+            tokenExpiresAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(token.getExpiresIn());
+            tokenRefreshes.increment();
+            logger.debug("Admin token obtained, valid for {}s", token.getExpiresIn());
+        } catch (RuntimeException e) {
+            tokenRefreshFailures.increment();
+            throw e;
+        } finally {
+            sample.stop(tokenRefreshTimer);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        logger.info("Closing Keycloak admin client");
+        keycloak.close();
+        connectionManager.shutdown();
+    }
+}
@@ -6,8 +6,6 @@ import org.slf4j.LoggerFactory;
 import com.example.aiteamschedulerapp.entities.*;
 import com.example.aiteamschedulerapp.repositories.UserRepository;
 import jakarta.ws.rs.NotFoundException;
-import org.keycloak.admin.client.Keycloak;
-import org.keycloak.admin.client.KeycloakBuilder;
 import org.keycloak.admin.client.resource.RealmResource;
 import org.keycloak.admin.client.resource.UserResource;
 import org.keycloak.admin.client.resource.UsersResource;
@@ -22,21 +20,25 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.Base64;
@@ -49,69 +51,99 @@ public class KeycloakService {
 
 
     private final UserRepository userRepository;
-
-    @Value("${keycloak.auth-server-url}")
-    private String authServerUrl;
+    private final KeycloakAdminClient keycloakAdminClient;
+    private final KeycloakTokenClient keycloakTokenClient;
+    private final UserSearchIndex userSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService registrationExecutor;
+    private final Counter orphanedUsers;
+    private final RealmRoleCache realmRoleCache;
+    private final AuthService authService;
 
     @Value("${keycloak.realm}")
     private String realm;
 
-    @Value("${keycloak.resource}")
-    private String clientId;
-
-    @Value("${keycloak.credentials.secret}")
-    private String clientSecret;
-
 
 
-    public KeycloakService(UserRepository userRepository) {
+    public KeycloakService(UserRepository userRepository, KeycloakAdminClient keycloakAdminClient,
+                           KeycloakTokenClient keycloakTokenClient, UserSearchIndex userSearchIndex,
+                           RealmRoleCache realmRoleCache, AuthService authService,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                           @Value("${keycloak.registration.threads:8}") int registrationThreads) {
         this.userRepository = userRepository;
+        this.keycloakAdminClient = keycloakAdminClient;
+        this.keycloakTokenClient = keycloakTokenClient;
+        this.userSearchIndex = userSearchIndex;
+        this.realmRoleCache = realmRoleCache;
+        this.authService = authService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.registrationExecutor = Executors.newFixedThreadPool(registrationThreads, runnable -> {
+            Thread thread = new Thread(runnable, "keycloak-registration");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.orphanedUsers = Counter.builder("keycloak.registration.orphaned").register(meterRegistry);
 
     }
 
-    @Transactional
+    /**
+     * Registers a user as a saga: create in Keycloak, then password and role in parallel, then the local row
+     * (in its own short transaction) while the token grant is in flight. If a later stage fails, the
+     * earlier ones are undone so no orphaned Keycloak user is left behind.
+     */
     public AuthResponse registerUser(RegisterRequest request) {
-        try {
-            // Check if email already exists
-            if (userRepository.existsByEmail(request.getEmail())) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "Email already in use");
-            }
+        Timer.Sample registration = Timer.start(meterRegistry);
 
-            // Create Keycloak admin instance
-            Keycloak keycloakAdmin = getKeycloakAdminInstance();
-            RealmResource realmResource = keycloakAdmin.realm(realm);
-            UsersResource usersResource = realmResource.users();
+        // Check if email already exists
+        if (userRepository.existsByEmail(request.getEmail())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Email already in use");
+        }
+
+        // Use the shared Keycloak admin client
+        RealmResource realmResource = keycloakAdminClient.realm(realm);
+        UsersResource usersResource = realmResource.users();
 
+        String keycloakUserId = null;
+        User user = null;
+        try {
             // Create user representation
-            UserRepresentation userRepresentation = new UserRepresentation();
-            userRepresentation.setEnabled(true);
-            userRepresentation.setUsername(request.getEmail());
-            userRepresentation.setEmail(request.getEmail());
-            userRepresentation.setFirstName(request.getFirstName());
-            userRepresentation.setLastName(request.getLastName());
-            userRepresentation.setEmailVerified(true);
+            UserRepresentation userRepresentation = newUserRepresentation(request);
 
             // Create user in Keycloak
-            jakarta.ws.rs.core.Response response = usersResource.create(userRepresentation);
-            String keycloakUserId = getCreatedUserId(response);
-
-            // Set password
-            setUserPassword(usersResource, keycloakUserId, request.getPassword());
-
-            // Assign role
-            assignRealmRole(realmResource, keycloakUserId, request.getRole().name());
-
-            // Save user in our database
-            User user = new User();
-            user.setFirstName(request.getFirstName());
-            user.setLastName(request.getLastName());
-            user.setEmail(request.getEmail());
-            user.setRole(request.getRole());
-            user.setKeycloakId(keycloakUserId);
-            user = userRepository.save(user);
-
-            // Get tokens
-            AccessTokenResponse tokenResponse = getToken(request.getEmail(), request.getPassword());
+            keycloakUserId = step("create", () -> getCreatedUserId(usersResource.create(userRepresentation)));
+
+            // Password and role do not depend on each other
+            String createdUserId = keycloakUserId;
+            CompletableFuture<Void> password = CompletableFuture.runAsync(() -> step("password", () -> {
+                setUserPassword(usersResource, createdUserId, request.getPassword());
+                return null;
+            }), registrationExecutor);
+            CompletableFuture<Void> role = CompletableFuture.runAsync(() -> step("role", () -> {
+                assignRealmRole(realmResource, createdUserId, request.getRole());
+                return null;
+            }), registrationExecutor);
+            await(CompletableFuture.allOf(password, role));
+
+            // Get tokens while the local row is written
+            Timer.Sample tokenStep = Timer.start(meterRegistry);
+            CompletableFuture<AccessTokenResponse> tokens = keycloakTokenClient
+                    .passwordGrantAsync(request.getEmail(), request.getPassword())
+                    .whenComplete((response, error) -> tokenStep.stop(stepTimer("token")));
+
+            // Save user in our database; the connection is only held for this insert
+            User newUser = new User();
+            newUser.setFirstName(request.getFirstName());
+            newUser.setLastName(request.getLastName());
+            newUser.setEmail(request.getEmail());
+            newUser.setRole(request.getRole());
+            newUser.setKeycloakId(keycloakUserId);
+            user = step("save", () -> transactionTemplate.execute(status -> userRepository.save(newUser)));
+            userSearchIndex.put(user);
+
+            AccessTokenResponse tokenResponse = await(tokens);
+            registration.stop(registrationTimer("success"));
 
             // Create response
             return AuthResponse.builder()
@@ -123,10 +155,119 @@ public class KeycloakService {
         } catch (Exception e) {
             // Log the error
             logger.error("Error occurred during user registration: {}", e.getMessage(), e);
+            compensate(keycloakUserId, user);
+            registration.stop(registrationTimer("failure"));
+            if (e instanceof ResponseStatusException statusException && statusException.getStatusCode().is4xxClientError()) {
+                throw statusException;
+            }
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "An error occurred while registering the user");
         }
     }
 
+    /**
+     * Creates a Keycloak user with password and role for bulk provisioning, without a token grant or local row.
+     * Parallelism comes from the caller running many of these at once, so the steps here are sequential.
+     * A partially created user is removed again before the failure is rethrown.
+     * @return The Keycloak user id
+     */
+    public String provisionKeycloakUser(RegisterRequest request) {
+        RealmResource realmResource = keycloakAdminClient.realm(realm);
+        UsersResource usersResource = realmResource.users();
+
+        String keycloakUserId = step("create", () -> getCreatedUserId(usersResource.create(newUserRepresentation(request))));
+        try {
+            step("password", () -> {
+                setUserPassword(usersResource, keycloakUserId, request.getPassword());
+                return null;
+            });
+            step("role", () -> {
+                assignRealmRole(realmResource, keycloakUserId, request.getRole());
+                return null;
+            });
+            return keycloakUserId;
+        } catch (RuntimeException e) {
+            compensate(keycloakUserId, null);
+            throw e;
+        }
+    }
+
+    /**
+     * Removes a provisioned Keycloak user whose local row could not be written.
+     */
+    public void discardKeycloakUser(String keycloakUserId) {
+        compensate(keycloakUserId, null);
+    }
+
+    private UserRepresentation newUserRepresentation(RegisterRequest request) {
+        UserRepresentation userRepresentation = new UserRepresentation();
+        userRepresentation.setEnabled(true);
+        userRepresentation.setUsername(request.getEmail());
+        userRepresentation.setEmail(request.getEmail());
+        userRepresentation.setFirstName(request.getFirstName());
+        userRepresentation.setLastName(request.getLastName());
+        userRepresentation.setEmailVerified(true);
+        return userRepresentation;
+    }
+
+    /**
+     * Undoes the completed registration stages, newest first. Failures are logged and counted, not rethrown.
+     */
+    private void compensate(String keycloakUserId, User user) {
+        step("compensate", () -> {
+            if (user != null) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> userRepository.deleteById(user.getId()));
+                    authService.evictUser(user);
+                    userSearchIndex.remove(user.getId());
+                } catch (RuntimeException e) {
+                    logger.error("Could not remove local user {} after failed registration", user.getEmail(), e);
+                }
+            }
+            if (keycloakUserId != null) {
+                try {
+                    keycloakAdminClient.realm(realm).users().get(keycloakUserId).remove();
+                    logger.info("Removed Keycloak user {} after failed registration", keycloakUserId);
+                } catch (RuntimeException e) {
+                    orphanedUsers.increment();
+                    logger.error("Could not remove Keycloak user {} after failed registration", keycloakUserId, e);
+                }
+            }
+            return null;
+        });
+    }
+
+    private <T> T step(String name, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return action.get();
+        } finally {
+            sample.stop(stepTimer(name));
+        }
+    }
+
+    private Timer stepTimer(String step) {
+        return Timer.builder("keycloak.registration.step")
+                .tag("step", step)
+                .register(meterRegistry);
+    }
+
+    private Timer registrationTimer(String outcome) {
+        return Timer.builder("keycloak.registration")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
     public AuthResponse login(LoginRequest request) {
         logger.info("User login attempt: {}", request.getEmail());
 
@@ -153,18 +294,6 @@ public class KeycloakService {
         }
     }
 
-    private Keycloak getKeycloakAdminInstance() {
-        logger.info("Creating Keycloak admin instance");
-
-        return KeycloakBuilder.builder()
-                .serverUrl(authServerUrl)
-                .realm("master")
-                .clientId("admin-cli")
-                .username("admin") // Replace with your admin username
-                .password("admin") // Replace with your admin password
-                .build();
-    }
-
     private String getCreatedUserId(jakarta.ws.rs.core.Response response) {
         if (response.getStatus() != 201) {
             logger.error("Failed to create user in Keycloak, status: {}", response.getStatus());
@@ -190,12 +319,12 @@ public class KeycloakService {
         userResource.resetPassword(credentialRepresentation);
     }
 
-    private void assignRealmRole(RealmResource realmResource, String userId, String roleName) {
+    private void assignRealmRole(RealmResource realmResource, String userId, UserRole roleName) {
         try {
             logger.info("Assigning role {} to user: {}", roleName, userId);
 
             // Get role
-            RoleRepresentation role = realmResource.roles().get(roleName).toRepresentation();
+            RoleRepresentation role = realmRoleCache.get(roleName);
 
             // Assign role to user
             realmResource.users().get(userId).roles().realmLevel()
@@ -208,18 +337,7 @@ public class KeycloakService {
 
     private AccessTokenResponse getToken(String username, String password) {
         logger.info("Getting token for user: {}", username);
-
-        Keycloak keycloak = KeycloakBuilder.builder()
-                .serverUrl(authServerUrl)
-                .realm(realm)
-                .clientId(clientId)
-                .clientSecret(clientSecret)
-                .username(username)
-                .password(password)
-                .grantType("password")
-                .build();
-
-        return keycloak.tokenManager().getAccessToken();
+        return keycloakTokenClient.passwordGrant(username, password);
     }
 
     private UserDto mapToUserDTO(User user) {
@@ -237,14 +355,14 @@ public class KeycloakService {
     /**
      * Updates a user's details in Keycloak
      * @param user The user entity with updated information
+     * @param previousRole The role the user had before the update
      */
-    public void updateUserDetails(User user) {
+    public void updateUserDetails(User user, UserRole previousRole) {
         logger.info("Updating user details in Keycloak for user ID: {}", user.getKeycloakId());
 
         try {
-            // Create Keycloak admin instance
-            Keycloak keycloakAdmin = getKeycloakAdminInstance();
-            RealmResource realmResource = keycloakAdmin.realm(realm);
+            // Use the shared Keycloak admin client
+            RealmResource realmResource = keycloakAdminClient.realm(realm);
             UserResource userResource = realmResource.users().get(user.getKeycloakId());
 
             // Get current representation
@@ -260,7 +378,9 @@ public class KeycloakService {
             userResource.update(userRepresentation);
 
             // Update user role if it has changed
-            updateUserRole(realmResource, user);
+            if (user.getRole() != previousRole) {
+                updateUserRole(realmResource, user);
+            }
 
             logger.info("Successfully updated user details in Keycloak for user ID: {}", user.getKeycloakId());
         } catch (Exception e) {
@@ -270,22 +390,20 @@ public class KeycloakService {
     }
 
     /**
-     * Updates a user's role in Keycloak if it has changed
+     * Replaces the user's application role in Keycloak. Other realm roles (e.g. default-roles) are left alone.
      * @param realmResource The realm resource
      * @param user The user entity with updated role
      */
     private void updateUserRole(RealmResource realmResource, User user) {
         UserResource userResource = realmResource.users().get(user.getKeycloakId());
 
-        // Get current roles
-        List<RoleRepresentation> currentRoles = userResource.roles().realmLevel().listAll();
-
-        // Remove current roles
-        userResource.roles().realmLevel().remove(currentRoles);
+        // Remove the other application roles; removing a role the user does not have is a no-op
+        userResource.roles().realmLevel().remove(realmRoleCache.allExcept(user.getRole()));
 
         // Add new role
-        RoleRepresentation newRole = realmResource.roles().get(user.getRole().name()).toRepresentation();
+        RoleRepresentation newRole = realmRoleCache.get(user.getRole());
         userResource.roles().realmLevel().add(Collections.singletonList(newRole));
+        authService.evictUser(user);
 
         logger.info("Updated role to {} for user ID: {}", user.getRole().name(), user.getKeycloakId());
     }
@@ -298,9 +416,8 @@ public class KeycloakService {
         logger.info("Deleting user from Keycloak with ID: {}", keycloakId);
 
         try {
-            // Create Keycloak admin instance
-            Keycloak keycloakAdmin = getKeycloakAdminInstance();
-            RealmResource realmResource = keycloakAdmin.realm(realm);
+            // Use the shared Keycloak admin client
+            RealmResource realmResource = keycloakAdminClient.realm(realm);
 
             // Delete user
             realmResource.users().get(keycloakId).remove();
@@ -317,32 +434,10 @@ public class KeycloakService {
         logger.info("Refreshing token using refresh token");
 
         try {
-            // Prepare the form data for the token endpoint
-            MultiValueMap<String, String> formData = new LinkedMultiValueMap<>();
-            formData.add("grant_type", "refresh_token");
-            formData.add("refresh_token", refreshToken);
-            formData.add("client_id", clientId);
-            formData.add("client_secret", clientSecret);
-
-            // Create headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-
-            // Create the HTTP entity
-            HttpEntity<MultiValueMap<String, String>> entity = new HttpEntity<>(formData, headers);
-
-            // Make the request to the Keycloak token endpoint
-            String tokenEndpoint = authServerUrl + "/realms/" + realm + "/protocol/openid-connect/token";
-            ResponseEntity<Map> response = new RestTemplate().postForEntity(
-                    tokenEndpoint,
-                    entity,
-                    Map.class
-            );
-
-            // Extract the new tokens
-            Map<String, Object> responseBody = response.getBody();
-            String newAccessToken = (String) responseBody.get("access_token");
-            String newRefreshToken = (String) responseBody.get("refresh_token");
+            // Exchange the refresh token at the token endpoint
+            AccessTokenResponse tokenResponse = keycloakTokenClient.refreshGrant(refreshToken);
+            String newAccessToken = tokenResponse.getToken();
+            String newRefreshToken = tokenResponse.getRefreshToken();
 
             // Extract user information from the token
             String[] jwtParts = newAccessToken.split("\\.");
@@ -368,4 +463,9 @@ public class KeycloakService {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
         }
     }
-}
\ No newline at end of file
+
+    @PreDestroy
+    public void shutdown() {
+        registrationExecutor.shutdown();
+    }
+}
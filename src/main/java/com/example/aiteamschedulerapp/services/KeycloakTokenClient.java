@@ -0,0 +1,167 @@
+package com.example.aiteamschedulerapp.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.keycloak.representations.AccessTokenResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Shared client for the realm's OpenID Connect token endpoint.
+ * Backs login, registration token issuance and refresh with one pooled, non-blocking HTTP client.
+ * The pool's idle keep-alive is JVM-wide; set it at startup with -Djdk.httpclient.keepalive.timeout=<seconds>.
+ */
+@Component
+public class KeycloakTokenClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeycloakTokenClient.class);
+
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final URI tokenEndpoint;
+    private final Duration requestTimeout;
+
+    @Value("${keycloak.resource}")
+    private String clientId;
+
+    @Value("${keycloak.credentials.secret}")
+    private String clientSecret;
+
+    public KeycloakTokenClient(
+            @Value("${keycloak.auth-server-url}") String authServerUrl,
+            @Value("${keycloak.realm}") String realm,
+            @Value("${keycloak.token-client.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${keycloak.token-client.request-timeout-ms:5000}") long requestTimeoutMs,
+            @Value("${keycloak.token-client.threads:4}") int threads,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this.tokenEndpoint = URI.create(authServerUrl + "/realms/" + realm + "/protocol/openid-connect/token");
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "keycloak-token-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Resource owner password grant, used by login and right after registration.
+     */
+    public CompletableFuture<AccessTokenResponse> passwordGrantAsync(String username, String password) {
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("grant_type", "password");
+        form.put("username", username);
+        form.put("password", password);
+        return requestToken("password", form);
+    }
+
+    public AccessTokenResponse passwordGrant(String username, String password) {
+        return await(passwordGrantAsync(username, password));
+    }
+
+    /**
+     * Refresh token grant.
+     */
+    public CompletableFuture<AccessTokenResponse> refreshGrantAsync(String refreshToken) {
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("grant_type", "refresh_token");
+        form.put("refresh_token", refreshToken);
+        return requestToken("refresh_token", form);
+    }
+
+    public AccessTokenResponse refreshGrant(String refreshToken) {
+        return await(refreshGrantAsync(refreshToken));
+    }
+
+    private CompletableFuture<AccessTokenResponse> requestToken(String grantType, Map<String, String> form) {
+        form.put("client_id", clientId);
+        form.put("client_secret", clientSecret);
+
+        HttpRequest request = HttpRequest.newBuilder(tokenEndpoint)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(encodeForm(form)))
+                .build();
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> readToken(grantType, response))
+                .whenComplete((token, error) -> sample.stop(Timer.builder("keycloak.token.grant")
+                        .description("Latency of token endpoint calls per grant type")
+                        .tag("grant", grantType)
+                        .tag("outcome", error == null ? "success" : "error")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)));
+    }
+
+    private AccessTokenResponse readToken(String grantType, HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        if (status != 200) {
+            logger.warn("Token endpoint rejected {} grant with status {}", grantType, status);
+            HttpStatus httpStatus = status == 400 || status == 401 ? HttpStatus.UNAUTHORIZED : HttpStatus.BAD_GATEWAY;
+            throw new ResponseStatusException(httpStatus, "Token request failed with status " + status);
+        }
+        try {
+            return objectMapper.readValue(response.body(), AccessTokenResponse.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable token endpoint response", e);
+        }
+    }
+
+    private AccessTokenResponse await(CompletableFuture<AccessTokenResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static String encodeForm(Map<String, String> form) {
+        return form.entrySet().stream()
+                .map(entry -> URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8) + "="
+                        + URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdown();
+    }
+}
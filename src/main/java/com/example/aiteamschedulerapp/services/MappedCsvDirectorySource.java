@@ -0,0 +1,81 @@
+package com.example.aiteamschedulerapp.services;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Reads a plain CSV file through a read-only memory mapping. Line breaks are found by scanning the
+ * mapped pages in place; only the bytes of each line are copied into a reused buffer for parsing.
+ */
+public class MappedCsvDirectorySource extends CsvDirectorySource {
+
+    // Mapped in windows so files above 2 GB work and the address space use stays bounded
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+    private final Path path;
+
+    public MappedCsvDirectorySource(Path path, int[] nameColumns, int emailColumn) {
+        super(nameColumns, emailColumn);
+        this.path = path;
+    }
+
+    @Override
+    public void load(Consumer<UserDirectoryIndex.Entry> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            byte[] line = new byte[512];
+            String[] fields = newFields();
+            while (position < size) {
+                long window = Math.min(WINDOW_SIZE, size - position);
+                boolean lastWindow = position + window >= size;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, window);
+                int limit = buffer.limit();
+
+                int lineStart = 0;
+                for (int i = 0; i < limit; i++) {
+                    if (buffer.get(i) == '\n') {
+                        line = parse(buffer, lineStart, i - lineStart, line, fields, sink);
+                        lineStart = i + 1;
+                    }
+                }
+
+                if (lastWindow) {
+                    if (lineStart < limit) {
+                        parse(buffer, lineStart, limit - lineStart, line, fields, sink);
+                    }
+                    break;
+                }
+                if (lineStart == 0) {
+                    throw new IOException("Line longer than " + WINDOW_SIZE + " bytes in " + path);
+                }
+                // Re-map from the start of the unfinished line
+                position += lineStart;
+            }
+        }
+    }
+
+    private byte[] parse(MappedByteBuffer buffer, int start, int length, byte[] line, String[] fields,
+                         Consumer<UserDirectoryIndex.Entry> sink) {
+        if (length > line.length) {
+            line = new byte[Math.max(length, line.length * 2)];
+        }
+        buffer.get(start, line, 0, length);
+        parseLine(line, 0, length, fields, sink);
+        return line;
+    }
+
+    @Override
+    public Path watchPath() {
+        return path;
+    }
+
+    @Override
+    public String description() {
+        return "mapped CSV " + path;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.aiteamschedulerapp.services;
+
+import com.example.aiteamschedulerapp.entities.UserRole;
+import jakarta.annotation.PostConstruct;
+import jakarta.ws.rs.NotFoundException;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keycloak representations of the realm roles backing {@link UserRole}. Warmed at startup and
+ * refreshed in the background, so role assignments need no lookup call of their own.
+ */
+@Component
+public class RealmRoleCache {
+    private static final Logger logger = LoggerFactory.getLogger(RealmRoleCache.class);
+
+    private final KeycloakAdminClient keycloakAdminClient;
+
+    @Value("${keycloak.realm}")
+    private String realm;
+
+    // Replaced wholesale on refresh, never mutated
+    private volatile Map<UserRole, RoleRepresentation> roles = new EnumMap<>(UserRole.class);
+
+    public RealmRoleCache(KeycloakAdminClient keycloakAdminClient) {
+        this.keycloakAdminClient = keycloakAdminClient;
+    }
+
+    @PostConstruct
+    public void warm() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Keycloak may still be starting; roles are loaded on first use instead
+            logger.warn("Could not warm realm role cache: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${keycloak.role-cache.refresh-interval-ms:300000}",
+            fixedDelayString = "${keycloak.role-cache.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.warn("Realm role refresh failed, keeping cached roles: {}", e.getMessage());
+        }
+    }
+
+    private void refresh() {
+        RealmResource realmResource = keycloakAdminClient.realm(realm);
+        Map<UserRole, RoleRepresentation> loaded = new EnumMap<>(UserRole.class);
+        for (UserRole role : UserRole.values()) {
+            try {
+                loaded.put(role, realmResource.roles().get(role.name()).toRepresentation());
+            } catch (NotFoundException e) {
+                logger.error("Realm role {} does not exist in realm {}", role.name(), realm);
+            }
+        }
+        roles = loaded;
+        logger.debug("Cached {} realm roles", loaded.size());
+    }
+
+    /**
+     * @throws NotFoundException if the role does not exist in the realm
+     */
+    public RoleRepresentation get(UserRole role) {
+        RoleRepresentation representation = roles.get(role);
+        if (representation != null) {
+            return representation;
+        }
+        representation = keycloakAdminClient.realm(realm).roles().get(role.name()).toRepresentation();
+        Map<UserRole, RoleRepresentation> updated = new EnumMap<>(UserRole.class);
+        updated.putAll(roles);
+        updated.put(role, representation);
+        roles = updated;
+        return representation;
+    }
+
+    /**
+     * Every application role except the given one. Roles missing from the realm are left out, since
+     * nobody can hold them; if warming failed the roles are loaded first.
+     */
+    public List<RoleRepresentation> allExcept(UserRole keep) {
+        Map<UserRole, RoleRepresentation> current = roles;
+        if (current.isEmpty()) {
+            refresh();
+            current = roles;
+        }
+        List<RoleRepresentation> others = new ArrayList<>();
+        current.forEach((role, representation) -> {
+            if (role != keep) {
+                others.add(representation);
+            }
+        });
+        return others;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.aiteamschedulerapp.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Primitive-array model of one scheduling run. Every required head of every shift is a slot; the solver
+ * assigns each slot a member index or -1. Skills and availability are folded into the per-slot candidate
+ * lists up front, so the search never has to look at them.
+ */
+public final class ScheduleProblem {
+
+    final int memberCount;
+    final int shiftCount;
+    final int slotCount;
+    // Shift index of each slot
+    final int[] slotShift;
+    final int[] shiftMinutes;
+    // Members allowed on each slot, and the same as a lookup table [slot][member]
+    final int[][] slotCandidates;
+    final boolean[][] eligible;
+    // Other slots whose shifts overlap this slot's shift (including the other heads of the same shift)
+    final int[][] slotConflicts;
+    // Average demand per member, the load every member is steered towards
+    final long targetMinutes;
+
+    /**
+     * @param shiftStart Shift start, in epoch minutes
+     * @param shiftEnd Shift end, in epoch minutes
+     * @param headcount Members needed per shift
+     * @param shiftEligible [shift][member] whether the member may work the shift
+     */
+    public ScheduleProblem(long[] shiftStart, long[] shiftEnd, int[] headcount, boolean[][] shiftEligible, int memberCount) {
+        this.memberCount = memberCount;
+        this.shiftCount = shiftStart.length;
+
+        this.shiftMinutes = new int[shiftCount];
+        int slots = 0;
+        long demand = 0;
+        for (int shift = 0; shift < shiftCount; shift++) {
+            shiftMinutes[shift] = (int) (shiftEnd[shift] - shiftStart[shift]);
+            slots += headcount[shift];
+            demand += (long) shiftMinutes[shift] * headcount[shift];
+        }
+        this.slotCount = slots;
+        this.targetMinutes = memberCount == 0 ? 0 : demand / memberCount;
+
+        this.slotShift = new int[slotCount];
+        int slot = 0;
+        for (int shift = 0; shift < shiftCount; shift++) {
+            for (int head = 0; head < headcount[shift]; head++) {
+                slotShift[slot++] = shift;
+            }
+        }
+
+        this.eligible = new boolean[slotCount][];
+        this.slotCandidates = new int[slotCount][];
+        for (slot = 0; slot < slotCount; slot++) {
+            boolean[] allowed = shiftEligible[slotShift[slot]];
+            eligible[slot] = allowed;
+            int count = 0;
+            for (boolean ok : allowed) {
+                if (ok) {
+                    count++;
+                }
+            }
+            int[] candidates = new int[count];
+            for (int member = 0, i = 0; member < memberCount; member++) {
+                if (allowed[member]) {
+                    candidates[i++] = member;
+                }
+            }
+            slotCandidates[slot] = candidates;
+        }
+
+        // Overlapping shifts by a sweep in start order: only shifts still running at a start can overlap it,
+        // so the work is proportional to the overlaps instead of to every pair of slots
+        int[] firstSlot = new int[shiftCount + 1];
+        for (int shift = 0; shift < shiftCount; shift++) {
+            firstSlot[shift + 1] = firstSlot[shift] + headcount[shift];
+        }
+        List<List<Integer>> overlapping = new ArrayList<>(shiftCount);
+        for (int shift = 0; shift < shiftCount; shift++) {
+            overlapping.add(new ArrayList<>());
+        }
+        Integer[] byStart = new Integer[shiftCount];
+        for (int shift = 0; shift < shiftCount; shift++) {
+            byStart[shift] = shift;
+        }
+        Arrays.sort(byStart, Comparator.comparingLong(shift -> shiftStart[shift]));
+        List<Integer> running = new ArrayList<>();
+        for (int shift : byStart) {
+            running.removeIf(other -> shiftEnd[other] <= shiftStart[shift]);
+            // An empty shift only overlaps shifts that started strictly before it, and nothing after it
+            boolean empty = shiftStart[shift] >= shiftEnd[shift];
+            for (int other : running) {
+                if (!empty || shiftStart[other] < shiftStart[shift]) {
+                    overlapping.get(shift).add(other);
+                    overlapping.get(other).add(shift);
+                }
+            }
+            if (!empty) {
+                running.add(shift);
+            }
+        }
+
+        this.slotConflicts = new int[slotCount][];
+        for (int shift = 0; shift < shiftCount; shift++) {
+            List<Integer> others = overlapping.get(shift);
+            int size = headcount[shift] - 1;
+            for (int other : others) {
+                size += headcount[other];
+            }
+            for (slot = firstSlot[shift]; slot < firstSlot[shift + 1]; slot++) {
+                int[] conflicts = new int[size];
+                int i = 0;
+                // The other heads of the same shift
+                for (int head = firstSlot[shift]; head < firstSlot[shift + 1]; head++) {
+                    if (head != slot) {
+                        conflicts[i++] = head;
+                    }
+                }
+                for (int other : others) {
+                    for (int head = firstSlot[other]; head < firstSlot[other + 1]; head++) {
+                        conflicts[i++] = head;
+                    }
+                }
+                slotConflicts[slot] = conflicts;
+            }
+        }
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public int getShiftOfSlot(int slot) {
+        return slotShift[slot];
+    }
+}
@@ -0,0 +1,447 @@
+package com.example.aiteamschedulerapp.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Local-search solver for {@link ScheduleProblem}. Each worker on a fork-join pool runs an independent
+ * late-acceptance hill climb from its own randomized greedy start until the time budget runs out;
+ * the best assignment found by any worker wins. Background solves get a pool of their own, so long jobs never
+ * hold the threads that request-thread solves and roster repairs need. With a warm start, workers begin from a previous
+ * solution, only fill its gaps greedily and concentrate their moves on the slots that need repair.
+ * Moves are scored incrementally from the member loads and the moved slot's conflicts. A {@link Control}
+ * receives the best score so far and can stop the search early.
+ *
+ * Scores are compared hard first, then soft. Hard: unfilled slots, and double bookings (a member on two
+ * overlapping shifts) which weigh twice as much. Soft: squared deviation of each member's assigned
+ * minutes from the average demand, so work is spread evenly.
+ */
+@Component
+public class ScheduleSolver {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleSolver.class);
+
+    private static final int UNFILLED_PENALTY = 1;
+    private static final int DOUBLE_BOOKING_PENALTY = 2;
+    private static final int LATE_ACCEPTANCE_LENGTH = 400;
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final ForkJoinPool backgroundPool;
+    private final int backgroundParallelism;
+    private final Counter iterationCounter;
+    private final Timer solveTimer;
+
+    public ScheduleSolver(
+            MeterRegistry meterRegistry,
+            @Value("${app.scheduling.parallelism:0}") int parallelism,
+            @Value("${app.scheduling.jobs.parallelism:0}") int backgroundParallelism
+    ) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(this.parallelism);
+        this.backgroundParallelism = backgroundParallelism > 0 ? backgroundParallelism : this.parallelism;
+        this.backgroundPool = new ForkJoinPool(this.backgroundParallelism);
+        this.iterationCounter = Counter.builder("scheduling.solver.iterations").register(meterRegistry);
+        this.solveTimer = Timer.builder("scheduling.solver.duration").register(meterRegistry);
+    }
+
+    public record Result(int[] assignment, long hardScore, long softScore, long iterations, long elapsedMillis,
+                         int workers) {
+
+        public long iterationsPerSecond() {
+            return elapsedMillis == 0 ? iterations : iterations * 1000 / elapsedMillis;
+        }
+
+        public int unfilledSlots() {
+            int unfilled = 0;
+            for (int member : assignment) {
+                if (member < 0) {
+                    unfilled++;
+                }
+            }
+            return unfilled;
+        }
+    }
+
+    /**
+     * Observes a running solve. Both methods are called from solver workers and must be cheap.
+     */
+    public interface Control {
+        Control NONE = new Control() {
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+
+            @Override
+            public void onImproved(long hardScore, long softScore) {
+            }
+        };
+
+        /** Polled every few hundred iterations; the best assignment so far is returned once it is true. */
+        boolean isCancelled();
+
+        /** Called when any worker beats the best score seen so far. */
+        void onImproved(long hardScore, long softScore);
+
+        /** Whether the solve runs on the background pool instead of the one shared by interactive solves. */
+        default boolean isBackground() {
+            return false;
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getBackgroundParallelism() {
+        return backgroundParallelism;
+    }
+
+    public Result solve(ScheduleProblem problem, Duration budget) {
+        return solve(problem, budget, null, null);
+    }
+
+    /**
+     * @param initial Previous assignment per slot (-1 for unfilled) to start from, or null for a cold start
+     * @param focus Slots most moves should touch, e.g. those affected by a roster change; null for all slots
+     */
+    public Result solve(ScheduleProblem problem, Duration budget, int[] initial, int[] focus) {
+        return solve(problem, budget, initial, focus, Control.NONE, parallelism);
+    }
+
+    /**
+     * The budget is per worker and starts when the worker does, so a solve queued behind other solves on the
+     * same pool still gets its full search time.
+     * @param workerCount Number of searches to run, capped at the parallelism of the pool the control selects
+     */
+    public Result solve(ScheduleProblem problem, Duration budget, int[] initial, int[] focus, Control control,
+                        int workerCount) {
+        long started = System.nanoTime();
+        long budgetNanos = budget.toNanos();
+        long baseSeed = System.nanoTime();
+        ForkJoinPool target = control.isBackground() ? backgroundPool : pool;
+        int count = Math.max(1, Math.min(workerCount, target.getParallelism()));
+        Progress progress = new Progress(control);
+
+        List<Callable<Result>> workers = new ArrayList<>(count);
+        for (int worker = 0; worker < count; worker++) {
+            long seed = baseSeed + worker * 0x9E3779B97F4A7C15L;
+            workers.add(() -> {
+                long deadline = System.nanoTime() + budgetNanos;
+                return new Search(problem, new SplittableRandom(seed), focus).run(initial, deadline, progress);
+            });
+        }
+
+        Result best = null;
+        long iterations = 0;
+        for (Future<Result> future : target.invokeAll(workers)) {
+            try {
+                Result result = future.get();
+                iterations += result.iterations();
+                if (best == null || compare(result.hardScore(), result.softScore(), best.hardScore(), best.softScore()) < 0) {
+                    best = result;
+                }
+            } catch (ExecutionException e) {
+                logger.error("Schedule solver worker failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (best == null) {
+            throw new IllegalStateException("No schedule solver worker finished");
+        }
+
+        long elapsed = System.nanoTime() - started;
+        solveTimer.record(Duration.ofNanos(elapsed));
+        iterationCounter.increment(iterations);
+        Result combined = new Result(best.assignment(), best.hardScore(), best.softScore(), iterations,
+                Duration.ofNanos(elapsed).toMillis(), count);
+        logger.info("Solved {} slots ({} start{}) with {} workers: hard {}, soft {}, {} iterations ({}/s)",
+                problem.slotCount, initial == null ? "cold" : "warm", control.isCancelled() ? ", cancelled" : "",
+                count, combined.hardScore(), combined.softScore(), iterations, combined.iterationsPerSecond());
+        return combined;
+    }
+
+    static int compare(long hardA, long softA, long hardB, long softB) {
+        return hardA != hardB ? Long.compare(hardA, hardB) : Long.compare(softA, softB);
+    }
+
+    /**
+     * Best score across the workers of one solve; workers report at their periodic deadline check.
+     */
+    private static final class Progress {
+        private final Control control;
+        private long bestHard = Long.MAX_VALUE;
+        private long bestSoft = Long.MAX_VALUE;
+
+        Progress(Control control) {
+            this.control = control;
+        }
+
+        boolean isCancelled() {
+            return control.isCancelled();
+        }
+
+        synchronized void offer(long hard, long soft) {
+            if (compare(hard, soft, bestHard, bestSoft) < 0) {
+                bestHard = hard;
+                bestSoft = soft;
+                control.onImproved(hard, soft);
+            }
+        }
+    }
+
+    /**
+     * One worker's search state. Not thread-safe; every worker owns its arrays.
+     * {@code load}, {@code hard} and {@code soft} always describe {@code current}; package-visible so tests
+     * can check the incremental score of {@link #move} against {@link #evaluate}.
+     */
+    static final class Search {
+        private final ScheduleProblem problem;
+        private final SplittableRandom random;
+        private final int[] focus;
+        final int[] current;
+        final long[] load;
+        long hard;
+        long soft;
+
+        Search(ScheduleProblem problem, SplittableRandom random, int[] focus) {
+            this.problem = problem;
+            this.random = random;
+            this.focus = focus != null && focus.length > 0 ? focus : null;
+            this.current = new int[problem.slotCount];
+            this.load = new long[problem.memberCount];
+        }
+
+        Result run(int[] initial, long deadline, Progress progress) {
+            long started = System.nanoTime();
+            start(initial);
+            greedyFill();
+
+            int[] best = current.clone();
+            long bestHard = hard;
+            long bestSoft = soft;
+
+            long[] lateHard = new long[LATE_ACCEPTANCE_LENGTH];
+            long[] lateSoft = new long[LATE_ACCEPTANCE_LENGTH];
+            Arrays.fill(lateHard, hard);
+            Arrays.fill(lateSoft, soft);
+
+            long iterations = 0;
+            int slots = problem.slotCount;
+            long reportedHard = Long.MAX_VALUE;
+            long reportedSoft = Long.MAX_VALUE;
+            while (slots > 0) {
+                if ((iterations & 255) == 0) {
+                    if (System.nanoTime() >= deadline || progress.isCancelled()) {
+                        break;
+                    }
+                    if (bestHard != reportedHard || bestSoft != reportedSoft) {
+                        progress.offer(bestHard, bestSoft);
+                        reportedHard = bestHard;
+                        reportedSoft = bestSoft;
+                    }
+                }
+                iterations++;
+                long previousHard = hard;
+                long previousSoft = soft;
+
+                // Three in four moves start from a focus slot when there is one
+                int slot = focus != null && random.nextInt(4) != 0
+                        ? focus[random.nextInt(focus.length)]
+                        : random.nextInt(slots);
+                int other = -1;
+                int previousMember = current[slot];
+                int otherMember = -1;
+                if (random.nextBoolean()) {
+                    // Change: give the slot to another candidate, or leave it unfilled to resolve a double booking
+                    int[] candidates = problem.slotCandidates[slot];
+                    if (candidates.length == 0) {
+                        continue;
+                    }
+                    int pick = random.nextInt(candidates.length + 1);
+                    int member = pick == candidates.length ? -1 : candidates[pick];
+                    if (member == previousMember) {
+                        continue;
+                    }
+                    move(slot, member);
+                } else {
+                    // Swap: exchange members between two slots when both may take the other's slot
+                    other = random.nextInt(slots);
+                    otherMember = current[other];
+                    if (otherMember == previousMember
+                            || (otherMember >= 0 && !problem.eligible[slot][otherMember])
+                            || (previousMember >= 0 && !problem.eligible[other][previousMember])) {
+                        continue;
+                    }
+                    move(slot, otherMember);
+                    move(other, previousMember);
+                }
+
+                int lateIndex = (int) (iterations % LATE_ACCEPTANCE_LENGTH);
+                if (compare(hard, soft, previousHard, previousSoft) <= 0
+                        || compare(hard, soft, lateHard[lateIndex], lateSoft[lateIndex]) <= 0) {
+                    if (compare(hard, soft, bestHard, bestSoft) < 0) {
+                        System.arraycopy(current, 0, best, 0, slots);
+                        bestHard = hard;
+                        bestSoft = soft;
+                    }
+                } else {
+                    // Undo
+                    if (other >= 0) {
+                        move(other, otherMember);
+                    }
+                    move(slot, previousMember);
+                }
+                lateHard[lateIndex] = hard;
+                lateSoft[lateIndex] = soft;
+            }
+
+            long elapsed = Duration.ofNanos(System.nanoTime() - started).toMillis();
+            return new Result(best, bestHard, bestSoft, iterations, elapsed, 1);
+        }
+
+        /**
+         * Sets {@code current} to the given assignment (all unfilled when null) and scores it in full.
+         */
+        void start(int[] initial) {
+            if (initial != null) {
+                System.arraycopy(initial, 0, current, 0, current.length);
+            } else {
+                Arrays.fill(current, -1);
+            }
+            evaluate();
+        }
+
+        /**
+         * Fills the unfilled slots, most constrained first, with the least loaded candidate that causes no
+         * double booking. Slots that already have a member keep it.
+         */
+        private void greedyFill() {
+            List<Integer> open = new ArrayList<>();
+            for (int slot = 0; slot < current.length; slot++) {
+                if (current[slot] < 0) {
+                    open.add(slot);
+                }
+            }
+            open.sort((a, b) -> Integer.compare(problem.slotCandidates[a].length, problem.slotCandidates[b].length));
+
+            for (int slot : open) {
+                int chosen = -1;
+                long chosenLoad = Long.MAX_VALUE;
+                int ties = 0;
+                for (int member : problem.slotCandidates[slot]) {
+                    if (countConflicts(slot, member) > 0) {
+                        continue;
+                    }
+                    if (load[member] < chosenLoad) {
+                        chosen = member;
+                        chosenLoad = load[member];
+                        ties = 1;
+                    } else if (load[member] == chosenLoad && random.nextInt(++ties) == 0) {
+                        // Reservoir pick among equally loaded members, so workers start apart
+                        chosen = member;
+                    }
+                }
+                if (chosen >= 0) {
+                    move(slot, chosen);
+                }
+            }
+        }
+
+        /**
+         * Reassigns one slot and updates the score by delta: only the two members' loads and the slot's
+         * conflict list are looked at.
+         */
+        void move(int slot, int member) {
+            int previous = current[slot];
+            if (previous == member) {
+                return;
+            }
+            int minutes = problem.shiftMinutes[problem.slotShift[slot]];
+            if (previous < 0) {
+                hard -= UNFILLED_PENALTY;
+            } else {
+                hard -= (long) DOUBLE_BOOKING_PENALTY * countConflicts(slot, previous);
+                soft += changeLoad(previous, -minutes);
+            }
+            if (member < 0) {
+                hard += UNFILLED_PENALTY;
+            } else {
+                hard += (long) DOUBLE_BOOKING_PENALTY * countConflicts(slot, member);
+                soft += changeLoad(member, minutes);
+            }
+            current[slot] = member;
+        }
+
+        private int countConflicts(int slot, int member) {
+            int count = 0;
+            for (int other : problem.slotConflicts[slot]) {
+                if (current[other] == member) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private long changeLoad(int member, long minutes) {
+            long before = load[member] - problem.targetMinutes;
+            load[member] += minutes;
+            long after = load[member] - problem.targetMinutes;
+            return after * after - before * before;
+        }
+
+        /**
+         * Full score of {@code current}; only used once per run, moves are scored by {@link #move}.
+         */
+        void evaluate() {
+            Arrays.fill(load, 0);
+            long hardScore = 0;
+            for (int slot = 0; slot < problem.slotCount; slot++) {
+                int member = current[slot];
+                if (member < 0) {
+                    hardScore += UNFILLED_PENALTY;
+                    continue;
+                }
+                load[member] += problem.shiftMinutes[problem.slotShift[slot]];
+                for (int other : problem.slotConflicts[slot]) {
+                    // Each pair is counted once
+                    if (other > slot && current[other] == member) {
+                        hardScore += DOUBLE_BOOKING_PENALTY;
+                    }
+                }
+            }
+
+            long softScore = 0;
+            for (int member = 0; member < problem.memberCount; member++) {
+                long deviation = load[member] - problem.targetMinutes;
+                softScore += deviation * deviation;
+            }
+            hard = hardScore;
+            soft = softScore;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+        backgroundPool.shutdownNow();
+    }
+}
@@ -0,0 +1,376 @@
+package com.example.aiteamschedulerapp.services;
+
+import com.example.aiteamschedulerapp.entities.MemberSkill;
+import com.example.aiteamschedulerapp.entities.ScheduleSolution;
+import com.example.aiteamschedulerapp.entities.Shift;
+import com.example.aiteamschedulerapp.entities.ShiftDTO;
+import com.example.aiteamschedulerapp.repositories.MemberSkillRepository;
+import com.example.aiteamschedulerapp.repositories.ShiftAssignmentBatchRepository;
+import com.example.aiteamschedulerapp.repositories.ShiftAssignmentRepository;
+import com.example.aiteamschedulerapp.repositories.ShiftRepository;
+import com.example.aiteamschedulerapp.repositories.TeamRepository;
+import com.example.aiteamschedulerapp.repositories.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Shifts and member skills for a team, and solving the team's schedule against the members' availability.
+ * Solving reads the data in one short transaction, runs the solver without holding a connection,
+ * and writes the assignments in a second transaction. Roster changes trigger a warm-started repair of the
+ * upcoming schedule instead of a full re-solve.
+ */
+@Service
+public class SchedulingService {
+    private static final Logger logger = LoggerFactory.getLogger(SchedulingService.class);
+
+    private final TeamRepository teamRepository;
+    private final UserRepository userRepository;
+    private final ShiftRepository shiftRepository;
+    private final ShiftAssignmentRepository shiftAssignmentRepository;
+    private final ShiftAssignmentBatchRepository shiftAssignmentBatchRepository;
+    private final MemberSkillRepository memberSkillRepository;
+    private final AvailabilityService availabilityService;
+    private final ScheduleSolver scheduleSolver;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration defaultBudget;
+    private final Duration maxBudget;
+    private final Duration repairBudget;
+    private final Duration repairHorizon;
+    private final boolean repairOnMembershipChange;
+    private final ExecutorService repairExecutor;
+
+    public SchedulingService(
+            TeamRepository teamRepository,
+            UserRepository userRepository,
+            ShiftRepository shiftRepository,
+            ShiftAssignmentRepository shiftAssignmentRepository,
+            ShiftAssignmentBatchRepository shiftAssignmentBatchRepository,
+            MemberSkillRepository memberSkillRepository,
+            AvailabilityService availabilityService,
+            ScheduleSolver scheduleSolver,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.scheduling.default-time-budget-ms:2000}") long defaultBudgetMs,
+            @Value("${app.scheduling.max-time-budget-ms:30000}") long maxBudgetMs,
+            @Value("${app.scheduling.repair.time-budget-ms:50}") long repairBudgetMs,
+            @Value("${app.scheduling.repair.horizon-days:14}") long repairHorizonDays,
+            @Value("${app.scheduling.repair.enabled:true}") boolean repairOnMembershipChange
+    ) {
+        this.teamRepository = teamRepository;
+        this.userRepository = userRepository;
+        this.shiftRepository = shiftRepository;
+        this.shiftAssignmentRepository = shiftAssignmentRepository;
+        this.shiftAssignmentBatchRepository = shiftAssignmentBatchRepository;
+        this.memberSkillRepository = memberSkillRepository;
+        this.availabilityService = availabilityService;
+        this.scheduleSolver = scheduleSolver;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultBudget = Duration.ofMillis(defaultBudgetMs);
+        this.maxBudget = Duration.ofMillis(maxBudgetMs);
+        this.repairBudget = Duration.ofMillis(repairBudgetMs);
+        this.repairHorizon = Duration.ofDays(repairHorizonDays);
+        this.repairOnMembershipChange = repairOnMembershipChange;
+        // One repair at a time; changes to the same team are applied in order
+        this.repairExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "schedule-repair");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public List<ShiftDTO> createShifts(Long teamId, List<Shift> shifts) {
+        if (!teamRepository.existsById(teamId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Team not found");
+        }
+        for (Shift shift : shifts) {
+            if (shift.getStartTime() == null || shift.getEndTime() == null || !shift.getEndTime().isAfter(shift.getStartTime())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Shift end must be after its start");
+            }
+            if (shift.getHeadcount() < 1) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Shift headcount must be at least 1");
+            }
+            shift.setTeam(teamRepository.getReferenceById(teamId));
+        }
+        return shiftRepository.saveAll(shifts).stream()
+                .map(shift -> new ShiftDTO(shift, List.of()))
+                .collect(Collectors.toList());
+    }
+
+    public List<ShiftDTO> getShifts(Long teamId, LocalDateTime from, LocalDateTime to) {
+        List<Shift> shifts = shiftRepository.findInWindow(teamId, from, to);
+        Map<Long, List<Long>> assigned = new HashMap<>();
+        if (!shifts.isEmpty()) {
+            shiftAssignmentRepository.findRowsByShiftIds(shifts.stream().map(Shift::getId).collect(Collectors.toList()))
+                    .forEach(row -> assigned.computeIfAbsent(row.getShiftId(), id -> new ArrayList<>()).add(row.getUserId()));
+        }
+        return shifts.stream()
+                .map(shift -> new ShiftDTO(shift, assigned.getOrDefault(shift.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    public void replaceMemberSkills(Long teamId, Long userId, Collection<String> skills) {
+        requireMember(teamId, userId);
+        transactionTemplate.executeWithoutResult(status -> {
+            memberSkillRepository.deleteAllInBatch(memberSkillRepository.findByUser_Id(userId));
+            List<MemberSkill> rows = new ArrayList<>();
+            for (String skill : new LinkedHashSet<>(skills)) {
+                MemberSkill row = new MemberSkill();
+                row.setUser(userRepository.getReferenceById(userId));
+                row.setSkill(skill.trim());
+                rows.add(row);
+            }
+            memberSkillRepository.saveAll(rows);
+        });
+    }
+
+    private void requireMember(Long teamId, Long userId) {
+        if (!teamRepository.isMember(teamId, userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User is not a member of this team");
+        }
+    }
+
+    /**
+     * Assigns the team's members to its shifts in [from, to).
+     * @param timeBudget Solver wall-clock budget; null for the configured default
+     * @param warmStart Start from the stored assignments instead of from scratch
+     * @param apply Whether to replace the stored assignments with the result
+     */
+    public ScheduleSolution solve(Long teamId, LocalDateTime from, LocalDateTime to, Duration timeBudget,
+                                  boolean warmStart, boolean apply) {
+        Duration budget = checkBudget(timeBudget, maxBudget);
+        return solve(teamId, from, to, budget, warmStart, apply, ScheduleSolver.Control.NONE,
+                scheduleSolver.getParallelism());
+    }
+
+    /**
+     * Same as the request-thread solve, for callers that enforce their own budget limit.
+     * Nothing is stored when the control cancels the solve.
+     * @param workers Number of parallel searches
+     */
+    public ScheduleSolution solve(Long teamId, LocalDateTime from, LocalDateTime to, Duration budget,
+                                  boolean warmStart, boolean apply, ScheduleSolver.Control control, int workers) {
+        if (!to.isAfter(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Window end must be after its start");
+        }
+        ProblemData data = transactionTemplate.execute(status -> load(teamId, from, to));
+        if (data.problem() == null) {
+            return new ScheduleSolution(getShifts(teamId, from, to), 0, 0, 0, 0, 0, 0, 0, false);
+        }
+        return solveLoaded(teamId, data, budget, warmStart, null, apply, control, workers);
+    }
+
+    /**
+     * @param timeBudget Requested budget, or null for the configured default
+     * @return The budget to use
+     */
+    public Duration checkBudget(Duration timeBudget, Duration max) {
+        Duration budget = timeBudget == null ? defaultBudget : timeBudget;
+        if (budget.isNegative() || budget.isZero() || budget.compareTo(max) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Time budget must be between 1 and " + max.toMillis() + " ms");
+        }
+        return budget;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(TeamMembershipChangedEvent event) {
+        if (!repairOnMembershipChange) {
+            return;
+        }
+        repairExecutor.execute(() -> {
+            try {
+                repair(event.teamId(), event.addedUserIds());
+            } catch (RuntimeException e) {
+                logger.error("Schedule repair for team {} failed", event.teamId(), e);
+            }
+        });
+    }
+
+    /**
+     * Re-plans the team's upcoming shifts after a roster change. Starts from the stored assignments (removed
+     * members' slots become gaps) and steers the search to the gaps and to the slots the new members could take.
+     * Only shifts whose staffing actually changed are rewritten.
+     */
+    public ScheduleSolution repair(Long teamId, Set<Long> addedUserIds) {
+        long started = System.currentTimeMillis();
+        LocalDateTime from = LocalDateTime.now();
+        ProblemData data = transactionTemplate.execute(status -> load(teamId, from, from.plus(repairHorizon)));
+        if (data.problem() == null) {
+            return null;
+        }
+
+        ScheduleProblem problem = data.problem();
+        Set<Integer> addedMembers = new HashSet<>();
+        for (int m = 0; m < data.memberIds().size(); m++) {
+            if (addedUserIds.contains(data.memberIds().get(m))) {
+                addedMembers.add(m);
+            }
+        }
+        List<Integer> focus = new ArrayList<>();
+        for (int slot = 0; slot < problem.getSlotCount(); slot++) {
+            boolean[] eligible = problem.eligible[slot];
+            boolean gap = data.previous()[slot] < 0;
+            boolean newcomerFits = addedMembers.stream().anyMatch(m -> eligible[m]);
+            if (gap || newcomerFits) {
+                focus.add(slot);
+            }
+        }
+
+        ScheduleSolution solution = solveLoaded(teamId, data, repairBudget, true,
+                focus.stream().mapToInt(Integer::intValue).toArray(), true, ScheduleSolver.Control.NONE,
+                scheduleSolver.getParallelism());
+        logger.info("Repaired schedule of team {} ({} focus slots) in {} ms", teamId, focus.size(),
+                System.currentTimeMillis() - started);
+        return solution;
+    }
+
+    private ScheduleSolution solveLoaded(Long teamId, ProblemData data, Duration budget, boolean warmStart,
+                                         int[] focus, boolean apply, ScheduleSolver.Control control, int workers) {
+        ScheduleSolver.Result result = scheduleSolver.solve(data.problem(), budget,
+                warmStart ? data.previous() : null, focus, control, workers);
+        // A cancelled solve still reports its best assignment, but it is never stored
+        boolean store = apply && !control.isCancelled();
+
+        List<Shift> shifts = data.shifts();
+        Map<Long, List<Long>> assigned = new HashMap<>();
+        int[] assignment = result.assignment();
+        for (int slot = 0; slot < assignment.length; slot++) {
+            if (assignment[slot] < 0) {
+                continue;
+            }
+            long shiftId = shifts.get(data.problem().getShiftOfSlot(slot)).getId();
+            long userId = data.memberIds().get(assignment[slot]);
+            List<Long> users = assigned.computeIfAbsent(shiftId, id -> new ArrayList<>());
+            // A double booking within one shift is never written twice
+            if (!users.contains(userId)) {
+                users.add(userId);
+            }
+        }
+
+        if (store) {
+            // Only shifts whose staffing changed are rewritten
+            List<Long> changedShiftIds = new ArrayList<>();
+            List<long[]> pairs = new ArrayList<>();
+            for (Shift shift : shifts) {
+                List<Long> users = assigned.getOrDefault(shift.getId(), List.of());
+                if (!new HashSet<>(users).equals(data.previousByShift().getOrDefault(shift.getId(), Set.of()))) {
+                    changedShiftIds.add(shift.getId());
+                    users.forEach(userId -> pairs.add(new long[]{shift.getId(), userId}));
+                }
+            }
+            if (!changedShiftIds.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status ->
+                        shiftAssignmentBatchRepository.replaceAssignments(changedShiftIds, pairs, LocalDateTime.now()));
+            }
+            logger.info("Stored assignments of {} changed shifts for team {}", changedShiftIds.size(), teamId);
+        }
+
+        List<ShiftDTO> shiftDTOs = shifts.stream()
+                .map(shift -> new ShiftDTO(shift, assigned.getOrDefault(shift.getId(), List.of())))
+                .collect(Collectors.toList());
+        return new ScheduleSolution(shiftDTOs, result.hardScore(), result.softScore(), result.unfilledSlots(),
+                result.iterations(), result.iterationsPerSecond(), result.elapsedMillis(), result.workers(), store);
+    }
+
+    /**
+     * @param previous Stored assignment per slot (-1 for a gap), for warm starts
+     * @param previousByShift Stored assignments per shift id, to detect which shifts changed
+     */
+    private record ProblemData(List<Shift> shifts, List<Long> memberIds, ScheduleProblem problem,
+                               int[] previous, Map<Long, Set<Long>> previousByShift) {
+    }
+
+    private ProblemData load(Long teamId, LocalDateTime from, LocalDateTime to) {
+        if (!teamRepository.existsById(teamId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Team not found");
+        }
+        List<Long> memberIds = teamRepository.findMemberIds(teamId);
+        List<Shift> shifts = shiftRepository.findInWindow(teamId, from, to);
+        if (shifts.isEmpty() || memberIds.isEmpty()) {
+            return new ProblemData(shifts, memberIds, null, null, Map.of());
+        }
+
+        Map<Long, Set<String>> skills = new HashMap<>();
+        memberSkillRepository.findRowsByUserIds(memberIds)
+                .forEach(row -> skills.computeIfAbsent(row.getUserId(), id -> new HashSet<>()).add(row.getSkill()));
+
+        // Members without a calendar can take any shift
+        Map<Long, AvailabilityBitset> calendars = availabilityService.getCalendars(memberIds);
+
+        int memberCount = memberIds.size();
+        long[] shiftStart = new long[shifts.size()];
+        long[] shiftEnd = new long[shifts.size()];
+        int[] headcount = new int[shifts.size()];
+        boolean[][] eligible = new boolean[shifts.size()][memberCount];
+        for (int s = 0; s < shifts.size(); s++) {
+            Shift shift = shifts.get(s);
+            shiftStart[s] = minutes(shift.getStartTime());
+            shiftEnd[s] = minutes(shift.getEndTime());
+            headcount[s] = shift.getHeadcount();
+            for (int m = 0; m < memberCount; m++) {
+                Long userId = memberIds.get(m);
+                boolean skilled = shift.getRequiredSkill() == null
+                        || skills.getOrDefault(userId, Set.of()).contains(shift.getRequiredSkill());
+                AvailabilityBitset calendar = calendars.get(userId);
+                eligible[s][m] = skilled
+                        && (calendar == null || calendar.isFree(shift.getStartTime(), shift.getEndTime()));
+            }
+        }
+        ScheduleProblem problem = new ScheduleProblem(shiftStart, shiftEnd, headcount, eligible, memberCount);
+
+        // Stored assignments mapped onto slots; members who left or are no longer eligible leave a gap
+        Map<Long, Set<Long>> previousByShift = new HashMap<>();
+        shiftAssignmentRepository.findRowsByShiftIds(shifts.stream().map(Shift::getId).collect(Collectors.toList()))
+                .forEach(row -> previousByShift.computeIfAbsent(row.getShiftId(), id -> new HashSet<>()).add(row.getUserId()));
+        Map<Long, Integer> memberIndex = new HashMap<>();
+        for (int m = 0; m < memberCount; m++) {
+            memberIndex.put(memberIds.get(m), m);
+        }
+        int[] previous = new int[problem.getSlotCount()];
+        Arrays.fill(previous, -1);
+        int slot = 0;
+        for (int s = 0; s < shifts.size(); s++) {
+            int filled = 0;
+            for (Long userId : previousByShift.getOrDefault(shifts.get(s).getId(), Set.of())) {
+                Integer m = memberIndex.get(userId);
+                if (m != null && eligible[s][m] && filled < headcount[s]) {
+                    previous[slot + filled++] = m;
+                }
+            }
+            slot += headcount[s];
+        }
+        return new ProblemData(shifts, memberIds, problem, previous, previousByShift);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        repairExecutor.shutdownNow();
+    }
+
+    private static long minutes(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+}
@@ -0,0 +1,503 @@
+package com.example.aiteamschedulerapp.services;
+
+import com.example.aiteamschedulerapp.entities.ScheduleSolution;
+import com.example.aiteamschedulerapp.entities.SolverJob;
+import com.example.aiteamschedulerapp.entities.SolverJobDTO;
+import com.example.aiteamschedulerapp.entities.SolverJobStatus;
+import com.example.aiteamschedulerapp.entities.User;
+import com.example.aiteamschedulerapp.repositories.SolverJobRepository;
+import com.example.aiteamschedulerapp.repositories.TeamRepository;
+import com.example.aiteamschedulerapp.repositories.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Schedule solves that run in the background instead of on the request thread.
+ * Jobs wait in one queue per submitting manager and workers take them round-robin across managers, so a
+ * manager with many jobs cannot starve the others. Progress is pushed to Server-Sent Event subscribers;
+ * the job row records the outcome and the final solution. Every instance runs its own queue; job rows carry
+ * the submitting instance's id, which must stay the same across restarts of that instance.
+ */
+@Service
+public class SolverJobService {
+    private static final Logger logger = LoggerFactory.getLogger(SolverJobService.class);
+
+    private final SchedulingService schedulingService;
+    private final SolverJobRepository solverJobRepository;
+    private final TeamRepository teamRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Timer waitTimer;
+    private final int concurrency;
+    private final int workersPerJob;
+    private final int maxQueuedPerManager;
+    private final Duration maxBudget;
+    private final long emitterTimeoutMs;
+    private final long progressIntervalMs;
+    private final String instanceId;
+
+    // One FIFO per manager, and the managers with queued jobs in turn order
+    private final ReentrantLock queueLock = new ReentrantLock();
+    private final Condition jobQueued = queueLock.newCondition();
+    private final Map<Long, ArrayDeque<LiveJob>> queues = new HashMap<>();
+    private final ArrayDeque<Long> turns = new ArrayDeque<>();
+    private volatile int queued;
+
+    // Jobs that have not finished yet; finished jobs are served from the database
+    private final Map<Long, LiveJob> live = new ConcurrentHashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService progressPublisher;
+
+    public SolverJobService(
+            SchedulingService schedulingService,
+            SolverJobRepository solverJobRepository,
+            TeamRepository teamRepository,
+            UserRepository userRepository,
+            ScheduleSolver scheduleSolver,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.scheduling.jobs.concurrency:0}") int concurrency,
+            @Value("${app.scheduling.jobs.max-queued-per-manager:20}") int maxQueuedPerManager,
+            @Value("${app.scheduling.jobs.max-time-budget-ms:600000}") long maxBudgetMs,
+            @Value("${app.scheduling.jobs.sse-timeout-ms:900000}") long emitterTimeoutMs,
+            @Value("${app.scheduling.jobs.progress-interval-ms:500}") long progressIntervalMs,
+            @Value("${app.scheduling.jobs.instance-id:${HOSTNAME:local}}") String instanceId
+    ) {
+        this.schedulingService = schedulingService;
+        this.solverJobRepository = solverJobRepository;
+        this.teamRepository = teamRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        // Jobs run on the solver's background pool, never on the one request-thread solves and repairs use;
+        // together they never run more searches than it has threads
+        int parallelism = scheduleSolver.getBackgroundParallelism();
+        this.concurrency = concurrency > 0 ? concurrency : Math.max(1, parallelism / 4);
+        this.workersPerJob = Math.max(1, parallelism / this.concurrency);
+        this.maxQueuedPerManager = maxQueuedPerManager;
+        this.maxBudget = Duration.ofMillis(maxBudgetMs);
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.progressIntervalMs = progressIntervalMs;
+        this.instanceId = instanceId;
+        this.progressPublisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "solver-job-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.waitTimer = Timer.builder("scheduling.jobs.wait").register(meterRegistry);
+        Gauge.builder("scheduling.jobs.queued", this, service -> service.queued).register(meterRegistry);
+        Gauge.builder("scheduling.jobs.running", this, service -> service.live.values().stream()
+                .filter(job -> job.status == SolverJobStatus.RUNNING)
+                .count()).register(meterRegistry);
+    }
+
+    /**
+     * Sent as "status" and "progress" events. Scores are null until the solver has a first solution.
+     */
+    public record JobProgress(Long jobId, SolverJobStatus status, Long hardScore, Long softScore, long elapsedMillis) {
+    }
+
+    private record Score(long hard, long soft) {
+    }
+
+    /**
+     * In-memory state of a queued or running job; also the solver's control for it.
+     */
+    private static final class LiveJob implements ScheduleSolver.Control {
+        final Long id;
+        final Long teamId;
+        final Long managerId;
+        final LocalDateTime from;
+        final LocalDateTime to;
+        final Duration budget;
+        final boolean warmStart;
+        final boolean apply;
+        final long queuedAt = System.nanoTime();
+        final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        volatile SolverJobStatus status = SolverJobStatus.QUEUED;
+        volatile boolean cancelled;
+        volatile long startedAt;
+        volatile Score best;
+        // Only touched by the progress publisher
+        Score published;
+
+        LiveJob(Long id, Long teamId, Long managerId, LocalDateTime from, LocalDateTime to, Duration budget,
+                boolean warmStart, boolean apply) {
+            this.id = id;
+            this.teamId = teamId;
+            this.managerId = managerId;
+            this.from = from;
+            this.to = to;
+            this.budget = budget;
+            this.warmStart = warmStart;
+            this.apply = apply;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void onImproved(long hardScore, long softScore) {
+            best = new Score(hardScore, softScore);
+        }
+
+        @Override
+        public boolean isBackground() {
+            return true;
+        }
+
+        JobProgress progress() {
+            Score score = best;
+            long elapsed = status == SolverJobStatus.RUNNING
+                    ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)
+                    : 0;
+            return new JobProgress(id, status, score == null ? null : score.hard(),
+                    score == null ? null : score.soft(), elapsed);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        int failed = solverJobRepository.failUnfinished(List.of(SolverJobStatus.QUEUED, SolverJobStatus.RUNNING),
+                instanceId, LocalDateTime.now(), "Interrupted by a restart");
+        if (failed > 0) {
+            logger.warn("Marked {} solver jobs from a previous run of instance {} as failed", failed, instanceId);
+        }
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = new Thread(this::work, "solver-job-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        progressPublisher.scheduleAtFixedRate(this::publishProgress, progressIntervalMs, progressIntervalMs,
+                TimeUnit.MILLISECONDS);
+        logger.info("Solver job queue started: {} concurrent jobs, {} searches each", concurrency, workersPerJob);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Running solves return at their next check
+        live.values().forEach(job -> job.cancelled = true);
+        workers.forEach(Thread::interrupt);
+        progressPublisher.shutdownNow();
+    }
+
+    public SolverJobDTO submit(Long teamId, User manager, LocalDateTime from, LocalDateTime to, Duration timeBudget,
+                               boolean warmStart, boolean apply) {
+        if (!to.isAfter(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Window end must be after its start");
+        }
+        Duration budget = schedulingService.checkBudget(timeBudget, maxBudget);
+        if (!teamRepository.existsById(teamId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Team not found");
+        }
+        if (queuedBy(manager.getId()) >= maxQueuedPerManager) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "At most " + maxQueuedPerManager + " solver jobs can be queued per manager");
+        }
+
+        SolverJob job = new SolverJob();
+        job.setTeam(teamRepository.getReferenceById(teamId));
+        job.setSubmittedBy(userRepository.getReferenceById(manager.getId()));
+        job.setStatus(SolverJobStatus.QUEUED);
+        job.setWindowStart(from);
+        job.setWindowEnd(to);
+        job.setTimeBudgetMs(budget.toMillis());
+        job.setWarmStart(warmStart);
+        job.setApply(apply);
+        job.setOwner(instanceId);
+        job.setSubmittedAt(LocalDateTime.now());
+        job = solverJobRepository.save(job);
+
+        LiveJob liveJob = new LiveJob(job.getId(), teamId, manager.getId(), from, to, budget, warmStart, apply);
+        live.put(liveJob.id, liveJob);
+        enqueue(liveJob);
+        logger.info("Solver job {} for team {} queued by user {}", liveJob.id, teamId, manager.getId());
+        return new SolverJobDTO(job);
+    }
+
+    public SolverJobDTO getJob(Long teamId, Long jobId) {
+        return transactionTemplate.execute(status -> solverJobRepository.findByIdAndTeam_Id(jobId, teamId)
+                .map(SolverJobDTO::new)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Solver job not found")));
+    }
+
+    /**
+     * Cancels a queued or running job. A running job stops at the solver's next check and keeps the
+     * stored assignments unchanged.
+     */
+    public SolverJobDTO cancel(Long teamId, Long jobId) {
+        getJob(teamId, jobId);
+        LiveJob job = live.get(jobId);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Solver job has already finished");
+        }
+        job.cancelled = true;
+        if (removeQueued(job)) {
+            finish(job, SolverJobStatus.CANCELLED, entity -> { });
+        }
+        logger.info("Solver job {} cancelled", jobId);
+        return getJob(teamId, jobId);
+    }
+
+    /**
+     * Streams "status" and "progress" events while the job is live, then a final "result" event with the job.
+     */
+    public SseEmitter subscribe(Long teamId, Long jobId) {
+        SolverJobDTO current = getJob(teamId, jobId);
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        LiveJob job = live.get(jobId);
+        if (job == null) {
+            send(emitter, "result", current);
+            emitter.complete();
+            return emitter;
+        }
+
+        job.emitters.add(emitter);
+        Runnable remove = () -> job.emitters.remove(emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        send(emitter, "status", job.progress());
+
+        // The job may have finished before the emitter was registered; whoever removes it sends the result
+        if (!live.containsKey(jobId) && job.emitters.remove(emitter)) {
+            send(emitter, "result", getJob(teamId, jobId));
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            LiveJob job;
+            try {
+                job = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                run(job);
+            } catch (RuntimeException | Error e) {
+                // Keep the worker alive; the job must not stay live or running
+                logger.error("Solver job {} crashed its worker", job.id, e);
+                if (live.containsKey(job.id)) {
+                    finish(job, SolverJobStatus.FAILED, entity -> entity.setError("Solver failed"));
+                }
+            }
+        }
+    }
+
+    private void run(LiveJob job) {
+        waitTimer.record(System.nanoTime() - job.queuedAt, TimeUnit.NANOSECONDS);
+        if (job.cancelled) {
+            finish(job, SolverJobStatus.CANCELLED, entity -> { });
+            return;
+        }
+
+        job.startedAt = System.nanoTime();
+        job.status = SolverJobStatus.RUNNING;
+        update(job.id, entity -> {
+            entity.setStatus(SolverJobStatus.RUNNING);
+            entity.setStartedAt(LocalDateTime.now());
+        });
+        broadcast(job, "status", job.progress());
+
+        String outcome;
+        try {
+            ScheduleSolution solution = schedulingService.solve(job.teamId, job.from, job.to, job.budget,
+                    job.warmStart, job.apply, job, workersPerJob);
+            String result = objectMapper.writeValueAsString(solution);
+            SolverJobStatus status = job.cancelled ? SolverJobStatus.CANCELLED : SolverJobStatus.COMPLETED;
+            finish(job, status, entity -> {
+                entity.setHardScore(solution.getHardScore());
+                entity.setSoftScore(solution.getSoftScore());
+                entity.setUnfilledSlots(solution.getUnfilledSlots());
+                entity.setIterations(solution.getIterations());
+                entity.setResult(result);
+            });
+            outcome = status.name().toLowerCase();
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.error("Solver job {} for team {} failed", job.id, job.teamId, e);
+            String error = e instanceof ResponseStatusException statusException
+                    ? statusException.getReason()
+                    : "Solver failed";
+            finish(job, SolverJobStatus.FAILED, entity -> entity.setError(error));
+            outcome = "failed";
+        }
+        Timer.builder("scheduling.jobs.solve")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - job.startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the outcome and releases the job. Never throws: if the row cannot be written the job is still
+     * released, and the row is failed by the next restart of this instance.
+     */
+    private void finish(LiveJob job, SolverJobStatus status, Consumer<SolverJob> changes) {
+        job.status = status;
+        SolverJobDTO result = null;
+        try {
+            result = update(job.id, entity -> {
+                entity.setStatus(status);
+                entity.setFinishedAt(LocalDateTime.now());
+                changes.accept(entity);
+            });
+        } catch (RuntimeException e) {
+            logger.error("Could not record {} for solver job {}", status, job.id, e);
+        }
+        live.remove(job.id);
+        for (SseEmitter emitter : job.emitters) {
+            if (job.emitters.remove(emitter)) {
+                if (result != null) {
+                    send(emitter, "result", result);
+                }
+                emitter.complete();
+            }
+        }
+    }
+
+    private SolverJobDTO update(Long jobId, Consumer<SolverJob> changes) {
+        return transactionTemplate.execute(status -> solverJobRepository.findById(jobId)
+                .map(entity -> {
+                    changes.accept(entity);
+                    return new SolverJobDTO(entity);
+                })
+                .orElse(null));
+    }
+
+    private void publishProgress() {
+        for (LiveJob job : live.values()) {
+            Score best = job.best;
+            if (job.status == SolverJobStatus.RUNNING && best != null && best != job.published
+                    && !job.emitters.isEmpty()) {
+                job.published = best;
+                broadcast(job, "progress", job.progress());
+            }
+        }
+    }
+
+    private void broadcast(LiveJob job, String event, Object data) {
+        for (SseEmitter emitter : job.emitters) {
+            if (!send(emitter, event, data)) {
+                job.emitters.remove(emitter);
+            }
+        }
+    }
+
+    private static boolean send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            return false;
+        }
+    }
+
+    private void enqueue(LiveJob job) {
+        queueLock.lock();
+        try {
+            queues.computeIfAbsent(job.managerId, managerId -> {
+                turns.addLast(managerId);
+                return new ArrayDeque<>();
+            }).addLast(job);
+            queued++;
+            jobQueued.signal();
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * Next job in round-robin order across managers; blocks while the queue is empty.
+     */
+    private LiveJob take() throws InterruptedException {
+        queueLock.lockInterruptibly();
+        try {
+            while (turns.isEmpty()) {
+                jobQueued.await();
+            }
+            Long managerId = turns.pollFirst();
+            ArrayDeque<LiveJob> queue = queues.get(managerId);
+            LiveJob job = queue.pollFirst();
+            if (queue.isEmpty()) {
+                queues.remove(managerId);
+            } else {
+                // Back of the line until every other manager has had a turn
+                turns.addLast(managerId);
+            }
+            queued--;
+            return job;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    private boolean removeQueued(LiveJob job) {
+        queueLock.lock();
+        try {
+            ArrayDeque<LiveJob> queue = queues.get(job.managerId);
+            if (queue == null || !queue.remove(job)) {
+                return false;
+            }
+            if (queue.isEmpty()) {
+                queues.remove(job.managerId);
+                turns.remove(job.managerId);
+            }
+            queued--;
+            return true;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    private int queuedBy(Long managerId) {
+        queueLock.lock();
+        try {
+            ArrayDeque<LiveJob> queue = queues.get(managerId);
+            return queue == null ? 0 : queue.size();
+        } finally {
+            queueLock.unlock();
+        }
+    }
+}
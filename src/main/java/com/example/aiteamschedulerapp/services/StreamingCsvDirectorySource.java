@@ -0,0 +1,112 @@
+package com.example.aiteamschedulerapp.services;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads CSV from a stream in fixed-size blocks, for inputs that cannot be memory mapped:
+ * gzip-compressed exports and resources packed into the application jar.
+ */
+public class StreamingCsvDirectorySource extends CsvDirectorySource {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    @FunctionalInterface
+    public interface Opener {
+        InputStream open() throws IOException;
+    }
+
+    private final String description;
+    private final Opener opener;
+    private final Path watchPath;
+
+    public StreamingCsvDirectorySource(String description, Opener opener, Path watchPath,
+                                       int[] nameColumns, int emailColumn) {
+        super(nameColumns, emailColumn);
+        this.description = description;
+        this.opener = opener;
+        this.watchPath = watchPath;
+    }
+
+    public static StreamingCsvDirectorySource gzip(Path path, int[] nameColumns, int emailColumn) {
+        return new StreamingCsvDirectorySource("gzip CSV " + path,
+                () -> new GZIPInputStream(Files.newInputStream(path), BLOCK_SIZE),
+                path, nameColumns, emailColumn);
+    }
+
+    public static StreamingCsvDirectorySource classpath(String location, int[] nameColumns, int emailColumn) {
+        ClassPathResource resource = new ClassPathResource(location);
+        Path watchPath = null;
+        try {
+            // Only exploded classpath resources (e.g. during development) live on the file system
+            if (resource.isFile()) {
+                watchPath = resource.getFile().toPath();
+            }
+        } catch (IOException e) {
+            // Not watchable
+        }
+        return new StreamingCsvDirectorySource("classpath CSV " + location, resource::getInputStream,
+                watchPath, nameColumns, emailColumn);
+    }
+
+    @Override
+    public void load(Consumer<UserDirectoryIndex.Entry> sink) throws IOException {
+        try (InputStream in = opener.open()) {
+            byte[] block = new byte[BLOCK_SIZE];
+            // Holds a line that spans two blocks
+            byte[] carry = new byte[512];
+            int carried = 0;
+            String[] fields = newFields();
+
+            int read;
+            while ((read = in.read(block)) != -1) {
+                int lineStart = 0;
+                for (int i = 0; i < read; i++) {
+                    if (block[i] != '\n') {
+                        continue;
+                    }
+                    if (carried == 0) {
+                        parseLine(block, lineStart, i - lineStart, fields, sink);
+                    } else {
+                        carry = append(carry, carried, block, lineStart, i - lineStart);
+                        parseLine(carry, 0, carried + i - lineStart, fields, sink);
+                        carried = 0;
+                    }
+                    lineStart = i + 1;
+                }
+                if (lineStart < read) {
+                    carry = append(carry, carried, block, lineStart, read - lineStart);
+                    carried += read - lineStart;
+                }
+            }
+            if (carried > 0) {
+                parseLine(carry, 0, carried, fields, sink);
+            }
+        }
+    }
+
+    private static byte[] append(byte[] target, int used, byte[] source, int offset, int length) {
+        if (used + length > target.length) {
+            target = Arrays.copyOf(target, Math.max(used + length, target.length * 2));
+        }
+        System.arraycopy(source, offset, target, used, length);
+        return target;
+    }
+
+    @Override
+    public Path watchPath() {
+        return watchPath;
+    }
+
+    @Override
+    public String description() {
+        return description;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.aiteamschedulerapp.services;
+
+import java.util.Set;
+
+/**
+ * Published by TeamService when a roster changes; listeners run after the change is committed.
+ */
+public record TeamMembershipChangedEvent(Long teamId, Set<Long> addedUserIds, Set<Long> removedUserIds) {
+}
@@ -1,26 +1,33 @@
 package com.example.aiteamschedulerapp.services;
 
 import org.springframework.stereotype.Service;
+import com.example.aiteamschedulerapp.entities.InvitationMailStatus;
 import com.example.aiteamschedulerapp.entities.Team;
+import com.example.aiteamschedulerapp.entities.TeamCreationResult;
 import com.example.aiteamschedulerapp.entities.TeamInvitation;
 import com.example.aiteamschedulerapp.entities.User;
 import com.example.aiteamschedulerapp.entities.UserRole;
 import com.example.aiteamschedulerapp.repositories.TeamInvitationRepository;
+import com.example.aiteamschedulerapp.repositories.TeamMemberBatchRepository;
 import com.example.aiteamschedulerapp.repositories.TeamRepository;
 import com.example.aiteamschedulerapp.repositories.UserRepository;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 
 import org.springframework.web.server.ResponseStatusException;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,25 +37,28 @@ public class TeamService {
     private final TeamRepository teamRepository;
     private final TeamInvitationRepository invitationRepository;
     private final UserRepository userRepository;
-    private final JavaMailSender mailSender;
-
-    @Value("${app.frontend.url}")
-    private String frontendUrl;
+    private final TeamMemberBatchRepository teamMemberBatchRepository;
+    private final InvitationDetailsService invitationDetailsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public TeamService(
             TeamRepository teamRepository,
             TeamInvitationRepository invitationRepository,
             UserRepository userRepository,
-            JavaMailSender mailSender
+            TeamMemberBatchRepository teamMemberBatchRepository,
+            InvitationDetailsService invitationDetailsService,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.teamRepository = teamRepository;
         this.invitationRepository = invitationRepository;
         this.userRepository = userRepository;
-        this.mailSender = mailSender;
+        this.teamMemberBatchRepository = teamMemberBatchRepository;
+        this.invitationDetailsService = invitationDetailsService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
-    public Team createTeam(User manager, String teamName, List<String> invitedEmails) {
+    public TeamCreationResult createTeam(User manager, String teamName, List<String> invitedEmails) {
         // Validate manager role
         if (manager.getRole() != UserRole.Manager) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only Managers can create teams");
@@ -59,47 +69,63 @@ public class TeamService {
         team.setManager(manager);
         Team savedTeam = teamRepository.save(team);
 
-        invitedEmails.forEach(email -> createTeamInvitation(savedTeam, email));
-        return savedTeam;
+        return createTeamInvitations(savedTeam, invitedEmails != null ? invitedEmails : List.of());
     }
 
-    private void createTeamInvitation(Team team, String email) {
-        // Check if user already exists or is already invited
-        if (userRepository.existsByEmail(email) ||
-                invitationRepository.findByEmail(email).isPresent()) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT,
-                    "User with email " + email + " is already registered or invited");
+    private TeamCreationResult createTeamInvitations(Team team, List<String> emails) {
+        // Trim and de-duplicate while keeping the caller's order
+        Set<String> candidates = emails.stream()
+                .filter(email -> email != null && !email.isBlank())
+                .map(String::trim)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        List<String> invitedEmails = new ArrayList<>();
+        Map<String, String> conflicts = new LinkedHashMap<>();
+        if (candidates.isEmpty()) {
+            return new TeamCreationResult(team, invitedEmails, conflicts);
         }
 
-        // Create invitation
-        TeamInvitation invitation = new TeamInvitation();
-        invitation.setTeam(team);
-        invitation.setEmail(email);
-        invitation.setInvitationToken(TeamInvitation.generateToken());
-        invitation.setCreatedAt(LocalDateTime.now());
-        invitation.setExpiresAt(LocalDateTime.now().plusDays(7));
-        invitation.setAccepted(false);
-
-        invitation = invitationRepository.save(invitation);
-
-        // Send invitation email
-        sendInvitationEmail(invitation);
-    }
-
-    private void sendInvitationEmail(TeamInvitation invitation) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(invitation.getEmail());
-        message.setSubject("Team Invitation for " + invitation.getTeam().getName());
+        // One IN query each instead of two lookups per email
+        Set<String> registered = userRepository.findExistingEmails(candidates);
+        Set<String> alreadyInvited = invitationRepository.findExistingEmails(candidates);
 
-        String registrationLink = frontendUrl + "/register?token=" + invitation.getInvitationToken();
+        LocalDateTime now = LocalDateTime.now();
+        List<TeamInvitation> invitations = new ArrayList<>();
+        for (String email : candidates) {
+            if (registered.contains(email)) {
+                conflicts.put(email, "User with email " + email + " is already registered");
+                continue;
+            }
+            if (alreadyInvited.contains(email)) {
+                conflicts.put(email, "User with email " + email + " is already invited");
+                continue;
+            }
 
-        message.setText("You have been invited to join the team: " + invitation.getTeam().getName() +
-                "\n\nPlease register using this link: " + registrationLink +
-                "\n\nThis link will expire in 7 days.");
+            // Create invitation
+            TeamInvitation invitation = new TeamInvitation();
+            invitation.setTeam(team);
+            invitation.setEmail(email);
+            invitation.setInvitationToken(TeamInvitation.generateToken());
+            invitation.setCreatedAt(now);
+            invitation.setExpiresAt(now.plusDays(7));
+            invitation.setAccepted(false);
+
+            // Queue the invitation email; InvitationMailDispatcher sends it after this transaction commits
+            invitation.setMailStatus(InvitationMailStatus.PENDING);
+            invitation.setNextMailAttemptAt(now);
+
+            invitations.add(invitation);
+            invitedEmails.add(email);
+        }
 
-        mailSender.send(message);
+        // Sequence ids are allocated in blocks, so these inserts go out as JDBC batches
+        invitationRepository.saveAll(invitations);
 
-        logger.info("Invitation email sent to {}", invitation.getEmail());
+        if (!conflicts.isEmpty()) {
+            logger.info("Team {}: {} invitations created, {} emails skipped", team.getId(),
+                    invitedEmails.size(), conflicts.size());
+        }
+        return new TeamCreationResult(team, invitedEmails, conflicts);
     }
 
     public List<Team> getManagerTeams(User manager) {
@@ -116,44 +142,47 @@ public class TeamService {
 
     @Transactional
     public Team addMembersToTeam(Long teamId, List<Long> memberIds) {
-        Team team = teamRepository.findById(teamId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Team not found"));
+        if (!teamRepository.existsById(teamId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Team not found");
+        }
 
+        // One guarded insert per new member instead of rewriting the whole roster
         List<User> members = userRepository.findAllById(memberIds);
-        team.getMembers().addAll(members);
+        Set<Long> added = members.stream()
+                .filter(member -> teamRepository.addMember(teamId, member.getId()) > 0)
+                .map(User::getId)
+                .collect(Collectors.toSet());
+        if (!added.isEmpty()) {
+            eventPublisher.publishEvent(new TeamMembershipChangedEvent(teamId, added, Set.of()));
+        }
 
-        return teamRepository.save(team);
+        return teamRepository.findWithMembersById(teamId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Team not found"));
     }
 
     public TeamInvitation validateInvitationToken(String token) {
-        return invitationRepository.findByInvitationToken(token)
-                .filter(invitation -> !invitation.isAccepted() &&
-                        invitation.getExpiresAt().isAfter(LocalDateTime.now()))
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid or expired invitation"));
-    }
-
-    public TeamInvitation getInvitationByToken(String token) {
-        return invitationRepository.findByInvitationToken(token)
-                .filter(invitation -> invitation.getExpiresAt().isAfter(LocalDateTime.now()))
+        return invitationRepository.findByInvitationTokenAndAcceptedFalseAndExpiresAtAfter(token, LocalDateTime.now())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid or expired invitation"));
     }
 
     @Transactional
     public void removeTeamMember(Long teamId, Long userId) {
-        Team team = teamRepository.findById(teamId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Team not found"));
+        if (!teamRepository.existsById(teamId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Team not found");
+        }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        if (!userRepository.existsById(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
 
         // Check if the user is actually a member of the team
-        if (!team.getMembers().contains(user)) {
+        if (!teamRepository.isMember(teamId, userId)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User is not a member of this team");
         }
 
-        // Remove the user from the team
-        team.getMembers().remove(user);
-        teamRepository.save(team);
+        // Remove the user from the team (single-row delete)
+        teamRepository.removeMember(teamId, userId);
+        eventPublisher.publishEvent(new TeamMembershipChangedEvent(teamId, Set.of(), Set.of(userId)));
 
         logger.info("User {} removed from team {}", userId, teamId);
     }
@@ -161,48 +190,83 @@ public class TeamService {
 
     @Transactional
     public void acceptInvitation(String token, User user) {
-        TeamInvitation invitation = invitationRepository.findByInvitationToken(token)
-                .filter(inv -> inv.getExpiresAt().isAfter(LocalDateTime.now()))
+        TeamInvitation invitation = invitationRepository.findByInvitationTokenAndExpiresAtAfter(token, LocalDateTime.now())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid or expired invitation"));
 
-        // Mark the invitation as accepted
+        // Mark the invitation as accepted; membership is added right here, so it is processed too
         invitation.setAccepted(true);
+        invitation.setProcessedAt(LocalDateTime.now());
         invitationRepository.save(invitation);
+        invitationDetailsService.evict(token);
 
-        // Add the user to the team's members
+        // Add the user to the team's members; the insert is skipped if they already are one
         Team team = invitation.getTeam();
-        if (team.getMembers() == null) {
-            team.setMembers(new ArrayList<>());
-        }
-
-        // Check if the user is already a team member to avoid duplicates
-        if (!team.getMembers().contains(user)) {
-            team.getMembers().add(user);
-            teamRepository.save(team);
+        if (teamRepository.addMember(team.getId(), user.getId()) > 0) {
+            eventPublisher.publishEvent(new TeamMembershipChangedEvent(team.getId(), Set.of(user.getId()), Set.of()));
         }
 
         logger.info("User {} accepted invitation to team {}", user.getId(), team.getId());
     }
 
+    /**
+     * Turns one chunk of accepted, unprocessed invitations into team memberships.
+     * @param afterId Watermark: only invitations with a greater id are considered
+     * @param chunkSize Maximum number of invitations to handle
+     * @param retryDelay How long invitations whose invitee has no account yet are left out of later scans
+     * @return What was processed, including the new watermark
+     */
     @Transactional
-    public void processAcceptedInvitations() {
-        List<TeamInvitation> acceptedInvitations = invitationRepository.findByAcceptedTrue();
-
-        for (TeamInvitation invitation : acceptedInvitations) {
-            User user = userRepository.findByEmail(invitation.getEmail()).orElse(null);
-            if (user != null) {
-                Team team = invitation.getTeam();
-                if (team.getMembers() == null) {
-                    team.setMembers(new ArrayList<>());
-                }
-
-                if (!team.getMembers().contains(user)) {
-                    team.getMembers().add(user);
-                    teamRepository.save(team);
-                    logger.info("User {} from accepted invitation added to team {}", user.getId(), team.getId());
-                }
+    public AcceptedInvitationChunk processAcceptedInvitationChunk(long afterId, int chunkSize, Duration retryDelay) {
+        LocalDateTime now = LocalDateTime.now();
+        List<TeamInvitationRepository.PendingMembership> pending =
+                invitationRepository.findUnprocessedAccepted(afterId, now, PageRequest.of(0, chunkSize));
+        if (pending.isEmpty()) {
+            return new AcceptedInvitationChunk(0, 0, 0, afterId);
+        }
+
+        // Resolve every invitee of the chunk with one IN query
+        Set<String> emails = pending.stream()
+                .map(TeamInvitationRepository.PendingMembership::getEmail)
+                .collect(Collectors.toSet());
+        Map<String, Long> userIdsByEmail = userRepository.findByEmailIn(emails).stream()
+                .collect(Collectors.toMap(User::getEmail, User::getId, (first, second) -> first));
+
+        List<long[]> memberships = new ArrayList<>();
+        List<Long> processedIds = new ArrayList<>();
+        List<Long> deferredIds = new ArrayList<>();
+        for (TeamInvitationRepository.PendingMembership invitation : pending) {
+            Long userId = userIdsByEmail.get(invitation.getEmail());
+            // Invitees without an account yet stay unprocessed and are retried once the delay has passed
+            if (userId != null) {
+                memberships.add(new long[]{invitation.getTeamId(), userId});
+                processedIds.add(invitation.getId());
+            } else {
+                deferredIds.add(invitation.getId());
             }
         }
+
+        int added = teamMemberBatchRepository.addMembers(memberships);
+        if (added > 0) {
+            // Pairs that already existed are included; a re-plan for them is a no-op
+            memberships.stream()
+                    .collect(Collectors.groupingBy(pair -> pair[0], Collectors.mapping(pair -> pair[1], Collectors.toSet())))
+                    .forEach((teamId, userIds) ->
+                            eventPublisher.publishEvent(new TeamMembershipChangedEvent(teamId, userIds, Set.of())));
+        }
+        if (!processedIds.isEmpty()) {
+            invitationRepository.markProcessed(processedIds, now);
+        }
+        if (!deferredIds.isEmpty()) {
+            invitationRepository.deferProcessing(deferredIds, now.plus(retryDelay));
+        }
+
+        long watermark = pending.get(pending.size() - 1).getId();
+        logger.info("Processed {} accepted invitations up to id {}, {} memberships added, {} deferred",
+                processedIds.size(), watermark, added, deferredIds.size());
+        return new AcceptedInvitationChunk(processedIds.size(), added, deferredIds.size(), watermark);
+    }
+
+    public record AcceptedInvitationChunk(int processed, int membershipsAdded, int deferred, long watermark) {
     }
 
 
@@ -0,0 +1,153 @@
+package com.example.aiteamschedulerapp.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, sorted view of the user directory file. Prefix lookups on email or name are two binary
+ * searches over pre-lowercased keys; the index is rebuilt wholesale when the file changes.
+ * Each address is held once: the email sort key is the entry's own String whenever it is already lower-case.
+ */
+public final class UserDirectoryIndex {
+
+    public record Entry(String name, String email) {
+    }
+
+    private record Keyed(String key, Entry entry) {
+    }
+
+    private final Entry[] byEmail;
+    private final String[] emailKeys;
+    private final Entry[] byName;
+    private final String[] nameKeys;
+    private final long estimatedBytes;
+
+    private UserDirectoryIndex(Entry[] byEmail, String[] emailKeys, Entry[] byName, String[] nameKeys) {
+        this.byEmail = byEmail;
+        this.emailKeys = emailKeys;
+        this.byName = byName;
+        this.nameKeys = nameKeys;
+        this.estimatedBytes = estimateBytes();
+    }
+
+    public static UserDirectoryIndex empty() {
+        return of(List.of());
+    }
+
+    public static UserDirectoryIndex of(List<Entry> entries) {
+        // Later lines win when the file lists an email twice
+        Map<String, Entry> unique = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            unique.put(entry.email().toLowerCase(Locale.ROOT), entry);
+        }
+
+        // Keys are lower-cased once up front instead of on every comparison
+        Keyed[] emails = new Keyed[unique.size()];
+        Keyed[] names = new Keyed[unique.size()];
+        int i = 0;
+        for (Map.Entry<String, Entry> entry : unique.entrySet()) {
+            // toLowerCase returned the same instance when nothing changed, so the key shares the entry's String
+            emails[i] = new Keyed(entry.getKey(), entry.getValue());
+            names[i] = new Keyed(entry.getValue().name().toLowerCase(Locale.ROOT), entry.getValue());
+            i++;
+        }
+        Arrays.sort(emails, Comparator.comparing(Keyed::key));
+        Arrays.sort(names, Comparator.comparing(Keyed::key));
+
+        Entry[] byEmail = new Entry[emails.length];
+        String[] emailKeys = new String[emails.length];
+        Entry[] byName = new Entry[names.length];
+        String[] nameKeys = new String[names.length];
+        for (i = 0; i < emails.length; i++) {
+            byEmail[i] = emails[i].entry();
+            emailKeys[i] = emails[i].key();
+            byName[i] = names[i].entry();
+            nameKeys[i] = names[i].key();
+        }
+
+        return new UserDirectoryIndex(byEmail, emailKeys, byName, nameKeys);
+    }
+
+    public int size() {
+        return byEmail.length;
+    }
+
+    /**
+     * Rough retained heap size of the index, assuming compressed oops and compact (Latin-1) strings.
+     */
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * All entries, ordered by email.
+     */
+    public List<Entry> all() {
+        return Arrays.asList(byEmail);
+    }
+
+    /**
+     * Entries whose email or name starts with the prefix (case-insensitive), ordered by email.
+     */
+    public List<Entry> search(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return all();
+        }
+        String key = prefix.trim().toLowerCase(Locale.ROOT);
+
+        Map<String, Entry> matches = new LinkedHashMap<>();
+        collect(emailKeys, byEmail, key, matches);
+        collect(nameKeys, byName, key, matches);
+
+        List<Entry> result = new ArrayList<>(matches.values());
+        result.sort(Comparator.comparing(entry -> entry.email().toLowerCase(Locale.ROOT)));
+        return result;
+    }
+
+    private long estimateBytes() {
+        // Four arrays of references
+        long bytes = 4 * (16 + 4L * byEmail.length);
+        Set<String> strings = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < byEmail.length; i++) {
+            // Entry record: header plus two references
+            bytes += 24;
+            strings.add(byEmail[i].name());
+            strings.add(byEmail[i].email());
+            strings.add(emailKeys[i]);
+            strings.add(nameKeys[i]);
+        }
+        for (String string : strings) {
+            // String object plus its backing byte[]
+            bytes += 24 + ((16 + string.length() + 7) & ~7L);
+        }
+        return bytes;
+    }
+
+    private static void collect(String[] keys, Entry[] entries, String prefix, Map<String, Entry> matches) {
+        for (int i = lowerBound(keys, prefix); i < keys.length && keys[i].startsWith(prefix); i++) {
+            matches.putIfAbsent(entries[i].email(), entries[i]);
+        }
+    }
+
+    private static int lowerBound(String[] keys, String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
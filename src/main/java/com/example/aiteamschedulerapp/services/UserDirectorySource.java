@@ -0,0 +1,24 @@
+package com.example.aiteamschedulerapp.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Where the available-user directory comes from. Implementations stream entries into the sink
+ * instead of returning a list, so no intermediate list of parsed rows is built next to the entries
+ * the caller collects.
+ */
+public interface UserDirectorySource {
+
+    void load(Consumer<UserDirectoryIndex.Entry> sink) throws IOException;
+
+    /**
+     * File to watch for changes, or null when the source cannot be watched.
+     */
+    default Path watchPath() {
+        return null;
+    }
+
+    String description();
+}
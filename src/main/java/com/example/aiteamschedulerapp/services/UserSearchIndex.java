@@ -0,0 +1,205 @@
+package com.example.aiteamschedulerapp.services;
+
+import com.example.aiteamschedulerapp.entities.User;
+import com.example.aiteamschedulerapp.entities.UserDto;
+import com.example.aiteamschedulerapp.repositories.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * In-process typeahead index over registered users. Every user is stored under the lower-cased first name,
+ * last name, full name and email, each suffixed with the id so keys stay unique; a prefix query is a
+ * sub-map range scan on a skip list. Reads are lock-free, writes are applied in place and only after
+ * the surrounding transaction commits.
+ */
+@Component
+public class UserSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    private static final char ID_SEPARATOR = '\u0000';
+
+    private final UserRepository userRepository;
+    private final Timer searchTimer;
+
+    private volatile State state = new State();
+    // Writes that happen while a rebuild is reading the table, replayed onto the rebuilt state
+    private List<Consumer<State>> pendingDuringRebuild;
+
+    public UserSearchIndex(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.searchTimer = Timer.builder("users.search")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("users.search.indexed", this, index -> index.state.users.size())
+                .register(meterRegistry);
+    }
+
+    private static final class State {
+        final ConcurrentSkipListMap<String, UserDto> keys = new ConcurrentSkipListMap<>();
+        final ConcurrentHashMap<Long, UserDto> users = new ConcurrentHashMap<>();
+        final Set<String> emails = ConcurrentHashMap.newKeySet();
+
+        void put(UserDto user) {
+            remove(user.getId());
+            users.put(user.getId(), user);
+            for (String key : keysOf(user)) {
+                keys.put(key, user);
+            }
+            if (user.getEmail() != null) {
+                emails.add(normalize(user.getEmail()));
+            }
+        }
+
+        void remove(Long id) {
+            UserDto previous = users.remove(id);
+            if (previous != null) {
+                for (String key : keysOf(previous)) {
+                    keys.remove(key);
+                }
+                if (previous.getEmail() != null) {
+                    emails.remove(normalize(previous.getEmail()));
+                }
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    /**
+     * Reloads the whole index from the users table, picking up changes made outside this application.
+     */
+    @Scheduled(initialDelayString = "${app.user-search.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${app.user-search.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        synchronized (this) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+        List<UserDto> users;
+        try {
+            users = userRepository.findAllForSearch();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingDuringRebuild = null;
+            }
+            logger.error("Failed to load users for the search index", e);
+            return;
+        }
+
+        State fresh = new State();
+        users.forEach(fresh::put);
+        synchronized (this) {
+            pendingDuringRebuild.forEach(change -> change.accept(fresh));
+            pendingDuringRebuild = null;
+            state = fresh;
+        }
+        logger.info("Indexed {} users for search in {} ms", users.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Users whose first name, last name, full name or email starts with the query, in key order.
+     */
+    public List<UserDto> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        return searchTimer.record(() -> {
+            String prefix = query.trim().toLowerCase(Locale.ROOT);
+            ConcurrentNavigableMap<String, UserDto> range = state.keys.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+
+            // One user can match on several keys
+            Map<Long, UserDto> matches = new LinkedHashMap<>();
+            for (UserDto user : range.values()) {
+                matches.putIfAbsent(user.getId(), user);
+                if (matches.size() >= limit) {
+                    break;
+                }
+            }
+            return new ArrayList<>(matches.values());
+        });
+    }
+
+    /**
+     * Whether a registered user has this email, ignoring case. Reflects the last rebuild plus the changes
+     * made through this application since.
+     */
+    public boolean isRegistered(String email) {
+        return email != null && state.emails.contains(normalize(email));
+    }
+
+    public void put(User user) {
+        UserDto dto = new UserDto(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getRole());
+        afterCommit(current -> current.put(dto));
+    }
+
+    public void remove(Long id) {
+        afterCommit(current -> current.remove(id));
+    }
+
+    private void afterCommit(Consumer<State> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private synchronized void apply(Consumer<State> change) {
+        change.accept(state);
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(change);
+        }
+    }
+
+    private static List<String> keysOf(UserDto user) {
+        String suffix = ID_SEPARATOR + String.valueOf(user.getId());
+        List<String> keys = new ArrayList<>(4);
+        String firstName = normalize(user.getFirstName());
+        String lastName = normalize(user.getLastName());
+        if (!firstName.isEmpty()) {
+            keys.add(firstName + suffix);
+        }
+        if (!lastName.isEmpty()) {
+            keys.add(lastName + suffix);
+        }
+        if (!firstName.isEmpty() && !lastName.isEmpty()) {
+            keys.add(firstName + ' ' + lastName + suffix);
+        }
+        String email = normalize(user.getEmail());
+        if (!email.isEmpty()) {
+            keys.add(email + suffix);
+        }
+        return keys;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
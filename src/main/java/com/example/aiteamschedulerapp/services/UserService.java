@@ -1,72 +1,163 @@
 package com.example.aiteamschedulerapp.services;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.stereotype.Service;
-import com.example.aiteamschedulerapp.repositories.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
 public class UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
-    private final UserRepository userRepository;
 
-    @Value("${app.user-list-path:classpath:user-list.txt}")
-    private String userListPath;
+    private final UserSearchIndex userSearchIndex;
+    private final UserDirectorySource directorySource;
+    private final Timer loadTimer;
 
-    public UserService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    private volatile UserDirectoryIndex directory = UserDirectoryIndex.empty();
+    private WatchService watchService;
+    private Thread watchThread;
+
+    public UserService(UserSearchIndex userSearchIndex, UserDirectorySource directorySource,
+                       MeterRegistry meterRegistry) {
+        this.userSearchIndex = userSearchIndex;
+        this.directorySource = directorySource;
+        this.loadTimer = Timer.builder("user.directory.load").register(meterRegistry);
+        Gauge.builder("user.directory.entries", this, service -> service.directory.size())
+                .register(meterRegistry);
+        Gauge.builder("user.directory.memory", this, service -> service.directory.estimatedBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
     }
 
-    public List<Map<String, String>> getAvailableUsers() {
-        List<Map<String, String>> availableUsers = new ArrayList<>();
-        try {
-            BufferedReader reader;
-            if (userListPath.startsWith("classpath:")) {
-                String filePath = userListPath.substring("classpath:".length());
-                ClassPathResource resource = new ClassPathResource(filePath);
-                reader = new BufferedReader(new InputStreamReader(resource.getInputStream()));
-            } else {
-                // For file system path
-                reader = new BufferedReader(new InputStreamReader(new java.io.FileInputStream(userListPath)));
-            }
+    public record DirectoryPage(List<Map<String, String>> users, int total) {
+    }
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.contains(",")) {
-                    String[] parts = line.split(",", 2);
-                    String name = parts[0].trim();
-                    String email = parts[1].trim();
-
-                    // Skip if user already exists in the system
-                    if (!userRepository.existsByEmail(email)) {
-                        availableUsers.add(Map.of(
-                                "name", name,
-                                "email", email
-                        ));
-                    }
-                }
-            }
-            reader.close();
-        } catch (IOException e) {
-            logger.error("Error reading user list file", e);
+    @PostConstruct
+    public void init() {
+        reloadDirectory();
+        watchDirectoryFile();
+    }
+
+    /**
+     * Directory users that are not registered yet, optionally narrowed by an email or name prefix.
+     * @param query Case-insensitive prefix, or null for everyone
+     * @param page Zero-based page number
+     * @param size Page size
+     */
+    public DirectoryPage getAvailableUsers(String query, int page, int size) {
+        List<UserDirectoryIndex.Entry> candidates = directory.search(query);
+        if (candidates.isEmpty()) {
+            return new DirectoryPage(List.of(), 0);
         }
-        return availableUsers;
+
+        // Checked against the search index's registered-email set whatever the query's breadth, so an entry's
+        // availability, the total and the paging do not depend on how narrow the prefix is; case is ignored
+        List<UserDirectoryIndex.Entry> available = candidates.stream()
+                .filter(entry -> !userSearchIndex.isRegistered(entry.email()))
+                .collect(Collectors.toList());
+
+        long from = Math.min((long) page * size, available.size());
+        int to = (int) Math.min(from + size, available.size());
+        List<Map<String, String>> users = available.subList((int) from, to).stream()
+                .map(entry -> Map.of(
+                        "name", entry.name(),
+                        "email", entry.email()
+                ))
+                .collect(Collectors.toList());
+        return new DirectoryPage(users, available.size());
     }
 
     public List<String> getAvailableUserEmails() {
-        return getAvailableUsers().stream()
+        return getAvailableUsers(null, 0, Integer.MAX_VALUE).users().stream()
                 .map(user -> user.get("email"))
                 .collect(Collectors.toList());
     }
 
+    private void reloadDirectory() {
+        long started = System.nanoTime();
+        List<UserDirectoryIndex.Entry> entries = new ArrayList<>();
+        try {
+            directorySource.load(entries::add);
+        } catch (IOException | RuntimeException e) {
+            // Keep serving the previous index
+            logger.error("Error reading user directory from {}", directorySource.description(), e);
+            return;
+        }
+        UserDirectoryIndex index = UserDirectoryIndex.of(entries);
+        directory = index;
+
+        long elapsed = System.nanoTime() - started;
+        loadTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Loaded {} directory users ({} rows) from {} in {} ms, index ~{} KB",
+                index.size(), entries.size(), directorySource.description(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), index.estimatedBytes() / 1024);
+    }
+
+    private void watchDirectoryFile() {
+        Path file = directorySource.watchPath();
+        if (file == null || file.toAbsolutePath().getParent() == null) {
+            logger.info("User directory {} cannot be watched, changes will not be picked up",
+                    directorySource.description());
+            return;
+        }
+        Path absolute = file.toAbsolutePath();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            absolute.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            logger.warn("Cannot watch user list {}: {}", absolute, e.getMessage());
+            return;
+        }
+
+        watchThread = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = watchService.take();
+                    boolean changed = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (absolute.getFileName().equals(event.context())) {
+                            changed = true;
+                        }
+                    }
+                    key.reset();
+                    if (changed) {
+                        // Editors often write in several steps; let them finish first
+                        Thread.sleep(200);
+                        reloadDirectory();
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // Shutting down
+            }
+        }, "user-directory-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
 }
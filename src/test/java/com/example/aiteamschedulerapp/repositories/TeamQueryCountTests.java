@@ -0,0 +1,223 @@
+package com.example.aiteamschedulerapp.repositories;
+
+import com.example.aiteamschedulerapp.entities.InvitationDetails;
+import com.example.aiteamschedulerapp.entities.Team;
+import com.example.aiteamschedulerapp.entities.TeamDTO;
+import com.example.aiteamschedulerapp.entities.TeamInvitation;
+import com.example.aiteamschedulerapp.entities.User;
+import com.example.aiteamschedulerapp.entities.UserRole;
+import com.example.aiteamschedulerapp.services.InvitationDetailsService;
+import com.example.aiteamschedulerapp.services.TeamService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the fetch plan of each team endpoint: a new N+1 shows up as extra prepared statements. The repository
+ * queries are checked on their own, and the service flows end to end, including the TeamDTO mapping the
+ * controller does on top.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({TeamService.class, InvitationDetailsService.class, TeamMemberBatchRepository.class,
+        TeamQueryCountTests.Metrics.class})
+class TeamQueryCountTests {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private TeamInvitationRepository invitationRepository;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private InvitationDetailsService invitationDetailsService;
+
+    private Statistics statistics;
+    private User manager;
+    private Team team;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        manager = persistUser("manager@example.com", UserRole.Manager);
+        team = persistTeam("Platform", 5);
+        persistTeam("Mobile", 3);
+
+        TeamInvitation invitation = new TeamInvitation();
+        invitation.setTeam(team);
+        invitation.setEmail("invitee@example.com");
+        invitation.setInvitationToken("token-1");
+        invitation.setCreatedAt(LocalDateTime.now());
+        invitation.setExpiresAt(LocalDateTime.now().plusDays(7));
+        entityManager.persist(invitation);
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void managerTeamsMappedToDtosTakeOneQuery() {
+        List<TeamDTO> teams = teamService.getManagerTeams(manager).stream()
+                .map(TeamDTO::new)
+                .toList();
+
+        assertThat(teams).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void invitationLookupTakesOneQueryAndSkipsRoster() {
+        TeamInvitation invitation = invitationRepository
+                .findByInvitationTokenAndAcceptedFalseAndExpiresAtAfter("token-1", LocalDateTime.now())
+                .orElseThrow();
+
+        assertThat(invitation.getTeam().getName()).isEqualTo("Platform");
+        assertThat(Hibernate.isInitialized(invitation.getTeam().getMembers())).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredInvitationIsFilteredByTheQuery() {
+        assertThat(invitationRepository.findByInvitationTokenAndExpiresAtAfter("token-1", LocalDateTime.now().plusDays(8)))
+                .isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void teamWithRosterForMembershipChangesTakesOneQuery() {
+        Team loaded = teamRepository.findWithMembersById(team.getId()).orElseThrow();
+
+        assertThat(loaded.getMembers()).hasSize(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void plainTeamLoadDoesNotTouchRoster() {
+        Team loaded = teamRepository.findById(team.getId()).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(loaded.getMembers())).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void membershipChangesAreSingleRowStatements() {
+        User newcomer = entityManager.persistAndFlush(newUser("newcomer@example.com"));
+        statistics.clear();
+
+        assertThat(teamRepository.isMember(team.getId(), newcomer.getId())).isFalse();
+        assertThat(teamRepository.addMember(team.getId(), newcomer.getId())).isEqualTo(1);
+        assertThat(teamRepository.addMember(team.getId(), newcomer.getId())).isZero();
+        assertThat(teamRepository.isMember(team.getId(), newcomer.getId())).isTrue();
+        assertThat(teamRepository.removeMember(team.getId(), newcomer.getId())).isEqualTo(1);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+    }
+
+    @Test
+    void invitationValidationTakesOneQuery() {
+        assertThat(teamService.validateInvitationToken("token-1").getTeam().getName()).isEqualTo("Platform");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void invitationDetailsTakeOneQueryAndAreThenServedFromCache() {
+        InvitationDetails validated = invitationDetailsService.validate("token-1");
+        InvitationDetails details = invitationDetailsService.getDetails("token-1");
+
+        assertThat(validated.getEmail()).isEqualTo("invitee@example.com");
+        assertThat(details.getEmail()).isEqualTo("invitee@example.com");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void addingMembersTakesOneStatementPerNewcomerPlusThree() {
+        List<Long> ids = List.of(persistUser("newcomer1@example.com", UserRole.User).getId(),
+                persistUser("newcomer2@example.com", UserRole.User).getId());
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        Team updated = teamService.addMembersToTeam(team.getId(), ids);
+
+        assertThat(updated.getMembers()).hasSize(7);
+        // existsById, findAllById, one guarded insert per newcomer, then the team with its roster
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3 + ids.size());
+    }
+
+    @Test
+    void removingMemberTakesFourSingleRowStatements() {
+        Long memberId = team.getMembers().iterator().next().getId();
+
+        teamService.removeTeamMember(team.getId(), memberId);
+
+        // Team exists, user exists, membership check, delete
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    private Team persistTeam(String name, int memberCount) {
+        Set<User> members = new HashSet<>();
+        for (int i = 0; i < memberCount; i++) {
+            members.add(persistUser(name.toLowerCase() + i + "@example.com", UserRole.User));
+        }
+        Team newTeam = new Team();
+        newTeam.setName(name);
+        newTeam.setManager(manager);
+        newTeam.setMembers(members);
+        return entityManager.persist(newTeam);
+    }
+
+    private User persistUser(String email, UserRole role) {
+        User user = newUser(email);
+        user.setRole(role);
+        return entityManager.persist(user);
+    }
+
+    private static User newUser(String email) {
+        User user = new User();
+        user.setFirstName("First");
+        user.setLastName("Last");
+        user.setEmail(email);
+        user.setRole(UserRole.User);
+        return user;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.aiteamschedulerapp.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Word-boundary behaviour of the availability bitset: ranges that start or end on slot 0, on either side of
+ * the first 64-slot word boundary and at the end of the horizon, rebasing the horizon, and run starts.
+ */
+class AvailabilityBitsetTests {
+
+    private static final LocalDate ORIGIN = LocalDate.of(2026, 3, 2);
+    private static final int HORIZON_DAYS = 2;
+    private static final int SLOTS = HORIZON_DAYS * AvailabilityBitset.SLOTS_PER_DAY;
+
+    @Test
+    void rangeStartingAtSlotZero() {
+        AvailabilityBitset bitset = empty().withFree(slot(0), slot(3));
+
+        assertThat(bitset.isFree(slot(0), slot(3))).isTrue();
+        assertThat(bitset.isFree(slot(0), slot(4))).isFalse();
+        assertThat(bitset.isFree(slot(-1), slot(1))).isFalse();
+    }
+
+    @Test
+    void rangeEndingOnLastSlotOfFirstWord() {
+        AvailabilityBitset bitset = empty().withFree(slot(60), slot(64));
+
+        assertThat(bitset.isFree(slot(60), slot(64))).isTrue();
+        assertThat(bitset.isFree(slot(63), slot(64))).isTrue();
+        assertThat(bitset.isFree(slot(63), slot(65))).isFalse();
+        assertThat(bitset.isFree(slot(59), slot(60))).isFalse();
+    }
+
+    @Test
+    void rangeStartingOnFirstSlotOfSecondWord() {
+        AvailabilityBitset bitset = empty().withFree(slot(64), slot(70));
+
+        assertThat(bitset.isFree(slot(64), slot(70))).isTrue();
+        assertThat(bitset.isFree(slot(63), slot(64))).isFalse();
+        assertThat(bitset.isFree(slot(63), slot(70))).isFalse();
+    }
+
+    @Test
+    void rangeAcrossWordBoundary() {
+        AvailabilityBitset bitset = empty().withFree(slot(63), slot(129));
+
+        assertThat(bitset.isFree(slot(63), slot(129))).isTrue();
+        assertThat(bitset.isFree(slot(62), slot(129))).isFalse();
+        assertThat(bitset.isFree(slot(63), slot(130))).isFalse();
+
+        AvailabilityBitset cleared = bitset.withBusy(slot(64), slot(65));
+        assertThat(cleared.isFree(slot(63), slot(64))).isTrue();
+        assertThat(cleared.isFree(slot(64), slot(65))).isFalse();
+        assertThat(cleared.isFree(slot(65), slot(129))).isTrue();
+    }
+
+    @Test
+    void rangeEndingAtHorizonEnd() {
+        AvailabilityBitset bitset = empty().withFree(slot(SLOTS - 5), slot(SLOTS + 10));
+
+        assertThat(bitset.isFree(slot(SLOTS - 5), slot(SLOTS))).isTrue();
+        // Time beyond the horizon is always busy
+        assertThat(bitset.isFree(slot(SLOTS - 1), slot(SLOTS + 1))).isFalse();
+    }
+
+    @Test
+    void wholeHorizon() {
+        AvailabilityBitset bitset = empty().withFree(slot(0), slot(SLOTS));
+
+        assertThat(bitset.isFree(slot(0), slot(SLOTS))).isTrue();
+        assertThat(bitset.withBusy(slot(SLOTS - 1), slot(SLOTS)).isFree(slot(0), slot(SLOTS))).isFalse();
+    }
+
+    @Test
+    void fullHorizonIsFreeUntilItsEnd() {
+        AvailabilityBitset full = AvailabilityBitset.full(ORIGIN, HORIZON_DAYS);
+
+        assertThat(full.isFree(slot(0), slot(SLOTS))).isTrue();
+        assertThat(full.isFree(slot(SLOTS - 1), slot(SLOTS + 1))).isFalse();
+        assertThat(full.withBusy(slot(63), slot(65)).isFree(slot(62), slot(63))).isTrue();
+        assertThat(full.withBusy(slot(63), slot(65)).isFree(slot(64), slot(65))).isFalse();
+        assertThat(full.withBusy(slot(63), slot(65)).isFree(slot(65), slot(SLOTS))).isTrue();
+    }
+
+    @Test
+    void partialSlotsRoundInwardWhenFreeAndOutwardWhenBusy() {
+        AvailabilityBitset free = empty().withFree(slot(10).plusMinutes(5), slot(13).plusMinutes(5));
+
+        assertThat(free.isFree(slot(11), slot(13))).isTrue();
+        assertThat(free.isFree(slot(10), slot(11))).isFalse();
+        assertThat(free.isFree(slot(13), slot(14))).isFalse();
+
+        AvailabilityBitset busy = empty().withFree(slot(0), slot(20)).withBusy(slot(10).plusMinutes(5), slot(11).plusMinutes(1));
+        assertThat(busy.isFree(slot(0), slot(10))).isTrue();
+        assertThat(busy.isFree(slot(10), slot(11))).isFalse();
+        assertThat(busy.isFree(slot(11), slot(12))).isFalse();
+        assertThat(busy.isFree(slot(12), slot(20))).isTrue();
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        AvailabilityBitset bitset = empty().withFree(slot(0), slot(1)).withFree(slot(63), slot(65))
+                .withFree(slot(SLOTS - 1), slot(SLOTS));
+
+        AvailabilityBitset read = AvailabilityBitset.fromBytes(ORIGIN, HORIZON_DAYS, bitset.toBytes());
+
+        assertThat(read.toBytes()).isEqualTo(bitset.toBytes());
+        assertThat(read.isFree(slot(63), slot(65))).isTrue();
+        assertThat(read.isFree(slot(SLOTS - 1), slot(SLOTS))).isTrue();
+    }
+
+    @Test
+    void rebaseByOneDayKeepsTimesAndAddsABusyDay() {
+        int day = AvailabilityBitset.SLOTS_PER_DAY;
+        AvailabilityBitset bitset = empty()
+                .withFree(slot(2), slot(4))
+                .withFree(slot(day + 63), slot(day + 65))
+                .withFree(slot(SLOTS - 2), slot(SLOTS));
+
+        AvailabilityBitset rebased = bitset.rebase(ORIGIN.plusDays(1));
+
+        assertThat(rebased.getOrigin()).isEqualTo(ORIGIN.plusDays(1));
+        assertThat(rebased.getSlotCount()).isEqualTo(SLOTS);
+        // The first day fell off the front
+        assertThat(rebased.isFree(slot(2), slot(4))).isFalse();
+        // The same wall-clock times are still free
+        assertThat(rebased.isFree(slot(day + 63), slot(day + 65))).isTrue();
+        assertThat(rebased.isFree(slot(SLOTS - 2), slot(SLOTS))).isTrue();
+        // The new last day starts busy
+        assertThat(rebased.isFree(slot(SLOTS), slot(SLOTS + 1))).isFalse();
+    }
+
+    @Test
+    void rebasePastHorizonIsAllBusy() {
+        AvailabilityBitset bitset = empty().withFree(slot(0), slot(SLOTS));
+
+        AvailabilityBitset rebased = bitset.rebase(ORIGIN.plusDays(HORIZON_DAYS));
+
+        LocalDateTime start = rebased.timeOf(0);
+        assertThat(rebased.isFree(start, start.plusMinutes(AvailabilityBitset.SLOT_MINUTES))).isFalse();
+        assertThat(rebased.toBytes()).containsOnly((byte) 0);
+    }
+
+    @Test
+    void runStartsOfLengthOneTwoAndThreeAcrossWordBoundary() {
+        AvailabilityBitset bitset = empty().withFree(slot(62), slot(67));
+
+        assertThat(runStarts(bitset, 1, 0, SLOTS)).isEqualTo(new int[]{62, 63, 64, 65, 66});
+        assertThat(runStarts(bitset, 2, 0, SLOTS)).isEqualTo(new int[]{62, 63, 64, 65});
+        assertThat(runStarts(bitset, 3, 0, SLOTS)).isEqualTo(new int[]{62, 63, 64});
+    }
+
+    @Test
+    void runStartsOfAWholeDaySpanSeveralWords() {
+        AvailabilityBitset bitset = empty().withFree(slot(10), slot(180));
+
+        int[] starts = runStarts(bitset, AvailabilityBitset.SLOTS_PER_DAY, 0, SLOTS);
+
+        assertThat(starts.length).isEqualTo(180 - AvailabilityBitset.SLOTS_PER_DAY - 10 + 1);
+        assertThat(starts[0]).isEqualTo(10);
+        assertThat(starts[starts.length - 1]).isEqualTo(180 - AvailabilityBitset.SLOTS_PER_DAY);
+        assertThat(runStarts(bitset.withBusy(slot(150), slot(151)), AvailabilityBitset.SLOTS_PER_DAY, 0, SLOTS))
+                .isEqualTo(new int[]{10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28,
+                        29, 30, 31, 32, 33, 34, 35, 36, 37, 38, 39, 40, 41, 42, 43, 44, 45, 46, 47, 48, 49, 50, 51, 52,
+                        53, 54});
+    }
+
+    @Test
+    void runStartsSkipRunsThatAreTooShort() {
+        AvailabilityBitset bitset = empty().withFree(slot(0), slot(2)).withFree(slot(5), slot(8));
+
+        assertThat(runStarts(bitset, 3, 0, SLOTS)).isEqualTo(new int[]{5});
+    }
+
+    @Test
+    void runStartsAtHorizonEnd() {
+        AvailabilityBitset bitset = empty().withFree(slot(SLOTS - 3), slot(SLOTS));
+
+        assertThat(runStarts(bitset, 3, 0, SLOTS)).isEqualTo(new int[]{SLOTS - 3});
+        assertThat(runStarts(bitset, 4, 0, SLOTS)).isEqualTo(new int[0]);
+    }
+
+    @Test
+    void runStartsAreLimitedToTheRangeAndAddedToCounts() {
+        AvailabilityBitset bitset = empty().withFree(slot(0), slot(10));
+        int[] counts = new int[SLOTS];
+
+        bitset.countRunStarts(2, 3, 6, counts);
+        bitset.countRunStarts(2, 3, 6, counts);
+
+        assertThat(counts[2]).isEqualTo(0);
+        assertThat(counts[3]).isEqualTo(2);
+        assertThat(counts[5]).isEqualTo(2);
+        assertThat(counts[6]).isEqualTo(0);
+    }
+
+    private static int[] runStarts(AvailabilityBitset bitset, int length, int from, int to) {
+        int[] counts = new int[bitset.getSlotCount()];
+        bitset.countRunStarts(length, from, to, counts);
+        return IntStream.range(0, counts.length).filter(slot -> counts[slot] > 0).toArray();
+    }
+
+    private static AvailabilityBitset empty() {
+        return AvailabilityBitset.empty(ORIGIN, HORIZON_DAYS);
+    }
+
+    private static LocalDateTime slot(int slot) {
+        return ORIGIN.atStartOfDay().plusMinutes((long) slot * AvailabilityBitset.SLOT_MINUTES);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.aiteamschedulerapp.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Properties of the solver's model: the incremental move scoring always agrees with a full evaluation, and the
+ * swept conflict lists match the pairwise overlap rule.
+ */
+class ScheduleSolverTests {
+
+    @Test
+    void incrementalScoreMatchesFullEvaluation() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            ScheduleProblem problem = randomProblem(random);
+
+            assertThat(firstScoreDrift(problem, random.nextLong(), 500)).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void conflictsMatchPairwiseOverlap() {
+        Random random = new Random(7);
+        for (int round = 0; round < 500; round++) {
+            int shifts = random.nextInt(15);
+            long[] start = new long[shifts];
+            long[] end = new long[shifts];
+            int[] headcount = new int[shifts];
+            for (int shift = 0; shift < shifts; shift++) {
+                start[shift] = random.nextInt(20);
+                // Some shifts are empty
+                end[shift] = start[shift] + random.nextInt(6);
+                headcount[shift] = random.nextInt(3);
+            }
+            ScheduleProblem problem = new ScheduleProblem(start, end, headcount, new boolean[shifts][2], 2);
+
+            for (int slot = 0; slot < problem.slotCount; slot++) {
+                Set<Integer> expected = new TreeSet<>();
+                for (int other = 0; other < problem.slotCount; other++) {
+                    int a = problem.slotShift[slot];
+                    int b = problem.slotShift[other];
+                    if (other != slot && (a == b || (start[a] < end[b] && start[b] < end[a]))) {
+                        expected.add(other);
+                    }
+                }
+                Set<Integer> actual = new TreeSet<>();
+                for (int other : problem.slotConflicts[slot]) {
+                    actual.add(other);
+                }
+
+                assertThat(actual).isEqualTo(expected);
+                assertThat(problem.slotConflicts[slot].length).isEqualTo(expected.size());
+            }
+        }
+    }
+
+    /**
+     * Applies random changes, swaps and undos to a random assignment, the way the search does, and
+     * re-evaluates the full score after each step.
+     * @return The first step at which the incrementally kept score differs from the full one, or -1
+     */
+    private static int firstScoreDrift(ScheduleProblem problem, long seed, int steps) {
+        SplittableRandom random = new SplittableRandom(seed);
+        ScheduleSolver.Search search = new ScheduleSolver.Search(problem, random, null);
+        int slots = problem.slotCount;
+        int[] initial = new int[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            int[] candidates = problem.slotCandidates[slot];
+            int pick = random.nextInt(candidates.length + 1);
+            initial[slot] = pick == candidates.length ? -1 : candidates[pick];
+        }
+        search.start(initial);
+
+        for (int step = 0; step < steps && slots > 0; step++) {
+            int slot = random.nextInt(slots);
+            int previousMember = search.current[slot];
+            int other = random.nextInt(slots);
+            int otherMember = search.current[other];
+            if (random.nextBoolean()) {
+                int[] candidates = problem.slotCandidates[slot];
+                int pick = random.nextInt(candidates.length + 1);
+                search.move(slot, pick == candidates.length ? -1 : candidates[pick]);
+                other = -1;
+            } else if ((otherMember < 0 || problem.eligible[slot][otherMember])
+                    && (previousMember < 0 || problem.eligible[other][previousMember])) {
+                search.move(slot, otherMember);
+                search.move(other, previousMember);
+            } else {
+                other = -1;
+            }
+            if (!matchesFullScore(search)) {
+                return step;
+            }
+            if (random.nextInt(3) == 0) {
+                // Undo in reverse order, as the search does
+                if (other >= 0) {
+                    search.move(other, otherMember);
+                }
+                search.move(slot, previousMember);
+                if (!matchesFullScore(search)) {
+                    return step;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matchesFullScore(ScheduleSolver.Search search) {
+        long incrementalHard = search.hard;
+        long incrementalSoft = search.soft;
+        long[] incrementalLoad = search.load.clone();
+        search.evaluate();
+        return search.hard == incrementalHard && search.soft == incrementalSoft
+                && Arrays.equals(search.load, incrementalLoad);
+    }
+
+    private static ScheduleProblem randomProblem(Random random) {
+        int shifts = 1 + random.nextInt(12);
+        int members = 1 + random.nextInt(6);
+        long[] start = new long[shifts];
+        long[] end = new long[shifts];
+        int[] headcount = new int[shifts];
+        boolean[][] eligible = new boolean[shifts][members];
+        for (int shift = 0; shift < shifts; shift++) {
+            // Short horizon so shifts overlap often
+            start[shift] = random.nextInt(8) * 60L;
+            end[shift] = start[shift] + 60L * (1 + random.nextInt(4));
+            headcount[shift] = 1 + random.nextInt(3);
+            for (int member = 0; member < members; member++) {
+                eligible[shift][member] = random.nextInt(4) != 0;
+            }
+        }
+        return new ScheduleProblem(start, end, headcount, eligible, members);
+    }
+}